@@ -0,0 +1,70 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A single ant step and a full ant walk from corner to corner of a generated maze.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AntBenchmark {
+
+    @Param({"51", "101", "201"})
+    public int size;
+
+    private Object maze;
+    private Object spec;
+    private Random random;
+    private Object walkingAnt;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Targets.quiet();
+        int[][] walls = BenchmarkData.maze(size, 42);
+        maze = (Object) Targets.NEW_MAZE.invokeExact((Object) walls, size, size, 1000.0d);
+        Object start = (Object) Targets.NEW_COORDINATE.invokeExact(1, 1);
+        Object end = (Object) Targets.NEW_COORDINATE.invokeExact(size - 2, size - 2);
+        spec = (Object) Targets.NEW_SPEC.invokeExact(start, end);
+        random = new Random(42);
+        walkingAnt = (Object) Targets.NEW_ANT.invokeExact(maze, spec, (Object) random);
+    }
+
+    /**
+     * One call of Ant.move; a fresh ant replaces the current one once it reaches the end.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void move() throws Throwable {
+        if ((boolean) Targets.HAS_REACHED_END.invokeExact(walkingAnt)) {
+            walkingAnt = (Object) Targets.NEW_ANT.invokeExact(maze, spec, (Object) random);
+        }
+        Targets.MOVE.invokeExact(walkingAnt);
+    }
+
+    /**
+     * A complete walk, including the allocation of the ant and its visited grid.
+     */
+    @Benchmark
+    public Object findRoute() throws Throwable {
+        Object ant = (Object) Targets.NEW_ANT.invokeExact(maze, spec, (Object) random);
+        return (Object) Targets.FIND_ROUTE.invokeExact(ant);
+    }
+}
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic generators for the mazes and distance matrices the benchmarks run on.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Generate a maze by a randomized depth-first search over the odd cells, with a few extra openings so that
+     * there are several routes. The outer border is wall; (1, 1) and (size-2, size-2) are always open.
+     * @param size Width and length of the maze, odd.
+     * @param seed Seed of the generator.
+     * @return int[][] walls[x][y], 1 for open and 0 for wall.
+     */
+    static int[][] maze(int size, long seed) {
+        Random random = new Random(seed);
+        int[][] walls = new int[size][size];
+        int[] stack = new int[size * size];
+        int top = 0;
+        walls[1][1] = 1;
+        stack[top++] = size + 1;
+        int[][] steps = {{2, 0}, {-2, 0}, {0, 2}, {0, -2}};
+        int[] options = new int[4];
+        while (top > 0) {
+            int x = stack[top - 1] / size;
+            int y = stack[top - 1] % size;
+            int count = 0;
+            for (int i = 0; i < 4; i++) {
+                int nx = x + steps[i][0];
+                int ny = y + steps[i][1];
+                if (nx > 0 && ny > 0 && nx < size - 1 && ny < size - 1 && walls[nx][ny] == 0) options[count++] = i;
+            }
+            if (count == 0) {
+                top--;
+                continue;
+            }
+            int[] step = steps[options[random.nextInt(count)]];
+            walls[x + step[0] / 2][y + step[1] / 2] = 1;
+            walls[x + step[0]][y + step[1]] = 1;
+            stack[top++] = (x + step[0]) * size + y + step[1];
+        }
+        for (int i = 0; i < size * size / 30; i++) {
+            walls[1 + random.nextInt(size - 2)][1 + random.nextInt(size - 2)] = 1;
+        }
+        return walls;
+    }
+
+    /**
+     * All open cells of a maze.
+     * @param walls The maze.
+     * @return List of {x, y} pairs.
+     */
+    static List<int[]> openCells(int[][] walls) {
+        List<int[]> cells = new ArrayList<>();
+        for (int x = 0; x < walls.length; x++) {
+            for (int y = 0; y < walls[x].length; y++) {
+                if (walls[x][y] == 1) cells.add(new int[]{x, y});
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Distance matrices of products at random points of a square, with the start and end at random points too.
+     * @param products Number of products.
+     * @param seed Seed of the generator.
+     * @return int[][][] {distances, {startDistances}, {endDistances}}.
+     */
+    static int[][][] distances(int products, long seed) {
+        Random random = new Random(seed);
+        int[] x = new int[products + 2];
+        int[] y = new int[products + 2];
+        for (int i = 0; i < products + 2; i++) {
+            x[i] = random.nextInt(1000);
+            y[i] = random.nextInt(1000);
+        }
+        int[][] distances = new int[products][products];
+        int[] start = new int[products];
+        int[] end = new int[products];
+        for (int i = 0; i < products; i++) {
+            for (int j = 0; j < products; j++) {
+                distances[i][j] = Math.abs(x[i] - x[j]) + Math.abs(y[i] - y[j]);
+            }
+            start[i] = Math.abs(x[products] - x[i]) + Math.abs(y[products] - y[i]);
+            end[i] = Math.abs(x[products + 1] - x[i]) + Math.abs(y[products + 1] - y[i]);
+        }
+        return new int[][][]{distances, {start}, {end}};
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The per-individual operators of GeneticAlgorithm on a seeded population over generated distance matrices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneticAlgorithmBenchmark {
+    private static final int POPULATION = 1000;
+
+    @Param({"18", "100", "1000"})
+    public int products;
+
+    private Object ga;
+    private Object distances;
+    private List<Object> population;
+    private Object father;
+    private Object mother;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Targets.quiet();
+        int[][][] matrices = BenchmarkData.distances(products, 42);
+        distances = (Object) Targets.NEW_DISTANCES.invokeExact((Object) matrices[0], (Object) matrices[1][0], (Object) matrices[2][0]);
+        ga = (Object) Targets.NEW_GA.invokeExact(1, POPULATION, 0.7d, 0.01d, (Object) new Random(42));
+        population = new ArrayList<>();
+        Targets.INITIALIZE_POPULATION.invokeExact(ga, (Object) population, distances);
+        Targets.CALCULATE_FITNESS.invokeExact(ga, (Object) population, distances);
+        father = population.get(POPULATION / 2);
+        mother = population.get(POPULATION - 1);
+    }
+
+    @Benchmark
+    public Object createCrossOver() throws Throwable {
+        return (Object) Targets.CREATE_CROSS_OVER.invokeExact(ga, father, mother);
+    }
+
+    @Benchmark
+    public Object getRouletteChromosome() throws Throwable {
+        return (Object) Targets.ROULETTE_CHROMOSOME.invokeExact(ga, (Object) population);
+    }
+
+    @Benchmark
+    public void calculateFitness() throws Throwable {
+        Targets.CALCULATE_FITNESS.invokeExact(ga, (Object) population, distances);
+    }
+}
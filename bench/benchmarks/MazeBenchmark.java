@@ -0,0 +1,87 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Pheromone operations of Maze: evaporation, route deposit and the neighbour lookup of every ant step.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MazeBenchmark {
+    private static final int POSITIONS = 1024;
+
+    @Param({"101", "501", "1501"})
+    public int size;
+
+    private Object maze;
+    private List<Object> routes;
+    private Object[] positions;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Targets.quiet();
+        int[][] walls = BenchmarkData.maze(size, 42);
+        maze = (Object) Targets.NEW_MAZE.invokeExact((Object) walls, size, size, 1000.0d);
+
+        Object start = (Object) Targets.NEW_COORDINATE.invokeExact(1, 1);
+        Object end = (Object) Targets.NEW_COORDINATE.invokeExact(size - 2, size - 2);
+        Object spec = (Object) Targets.NEW_SPEC.invokeExact(start, end);
+        Random random = new Random(42);
+        routes = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Object ant = (Object) Targets.NEW_ANT.invokeExact(maze, spec, (Object) random);
+            routes.add((Object) Targets.FIND_ROUTE.invokeExact(ant));
+        }
+
+        List<int[]> cells = BenchmarkData.openCells(walls);
+        positions = new Object[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            int[] cell = cells.get(random.nextInt(cells.size()));
+            positions[i] = (Object) Targets.NEW_COORDINATE.invokeExact(cell[0], cell[1]);
+        }
+    }
+
+    /**
+     * A tiny evaporation factor keeps the grid away from subnormal values over millions of invocations.
+     */
+    @Benchmark
+    public void evaporate() throws Throwable {
+        Targets.EVAPORATE.invokeExact(maze, 1e-6d);
+    }
+
+    /**
+     * Deposit of one generation of 25 ant routes.
+     */
+    @Benchmark
+    public int addPheromoneRoutes() throws Throwable {
+        return (int) Targets.ADD_PHEROMONE_ROUTES.invokeExact(maze, (Object) routes, 1000.0d);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object getSurroundingPheromone() throws Throwable {
+        next = (next + 1) & (POSITIONS - 1);
+        return (Object) Targets.SURROUNDING_PHEROMONE.invokeExact(maze, positions[next]);
+    }
+}
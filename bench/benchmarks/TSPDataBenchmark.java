@@ -0,0 +1,98 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading a persisted TSPData file and writing an action file visiting every product, from routes in a small
+ * generated maze computed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TSPDataBenchmark {
+    private static final int MAZE_SIZE = 41;
+
+    @Param({"10", "30", "60"})
+    public int products;
+
+    private File directory;
+    private String persistFile;
+    private String actionFile;
+    private Object tsp;
+    private int[] order;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Targets.quiet();
+        directory = Files.createTempDirectory("tspdata").toFile();
+        int[][] walls = BenchmarkData.maze(MAZE_SIZE, 42);
+        List<int[]> cells = BenchmarkData.openCells(walls);
+        Random random = new Random(42);
+
+        File productFile = new File(directory, "products.txt");
+        try (PrintWriter pw = new PrintWriter(productFile)) {
+            pw.print(products + ";\n");
+            for (int i = 0; i < products; i++) {
+                int[] cell = cells.get(random.nextInt(cells.size()));
+                pw.print((i + 1) + ": " + cell[0] + ", " + cell[1] + ";\n");
+            }
+        }
+        File coordinateFile = new File(directory, "coordinates.txt");
+        try (PrintWriter pw = new PrintWriter(coordinateFile)) {
+            pw.print("1, 1;\n" + (MAZE_SIZE - 2) + ", " + (MAZE_SIZE - 2) + ";\n");
+        }
+
+        Object maze = (Object) Targets.NEW_MAZE.invokeExact((Object) walls, MAZE_SIZE, MAZE_SIZE, 1000.0d);
+        Object aco = (Object) Targets.NEW_ACO.invokeExact(maze, 1, 1, 1000.0d, 0.1d);
+        tsp = (Object) Targets.READ_SPECIFICATION.invokeExact((Object) coordinateFile.getPath(), (Object) productFile.getPath());
+        Targets.CALCULATE_ROUTES.invokeExact(tsp, aco);
+        persistFile = new File(directory, "productMatrixDist").getPath();
+        Targets.WRITE_TSP.invokeExact(tsp, (Object) persistFile);
+        actionFile = new File(directory, "actions.txt").getPath();
+        order = new int[products];
+        for (int i = 0; i < products; i++) {
+            order[i] = i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        for (File file : directory.listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(directory.toPath());
+    }
+
+    @Benchmark
+    public Object readFromFile() throws Throwable {
+        return (Object) Targets.READ_TSP.invokeExact((Object) persistFile);
+    }
+
+    @Benchmark
+    public void writeActionFile() throws Throwable {
+        Targets.WRITE_ACTION_FILE.invokeExact(tsp, (Object) order, (Object) actionFile);
+    }
+}
@@ -0,0 +1,106 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.Random;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Handles to the solver classes under benchmark. JMH does not accept benchmarks in the default package, and Java
+ * code in a named package cannot refer to the default package where the solvers live. The benchmarks therefore hold
+ * solver objects as Object and call them through these static final method handles, which the JIT inlines just
+ * like a direct call.
+ */
+final class Targets {
+    static final Class<?> MAZE = load("Maze");
+    static final Class<?> COORDINATE = load("Coordinate");
+    static final Class<?> SPEC = load("PathSpecification");
+    static final Class<?> ANT = load("Ant");
+    static final Class<?> ROUTE = load("Route");
+    static final Class<?> ACO = load("AntColonyOptimization");
+    static final Class<?> CHROMOSOME = load("Chromosome");
+    static final Class<?> GA = load("GeneticAlgorithm");
+    static final Class<?> DISTANCES = load("ProductDistances");
+    static final Class<?> TSP = load("TSPData");
+
+    static final MethodHandle NEW_MAZE = constructor(MAZE, int[][].class, int.class, int.class, double.class);
+    static final MethodHandle NEW_COORDINATE = constructor(COORDINATE, int.class, int.class);
+    static final MethodHandle NEW_SPEC = constructor(SPEC, COORDINATE, COORDINATE);
+    static final MethodHandle NEW_ANT = constructor(ANT, MAZE, SPEC, Random.class);
+    static final MethodHandle NEW_ACO = constructor(ACO, MAZE, int.class, int.class, double.class, double.class);
+    static final MethodHandle NEW_GA = constructor(GA, int.class, int.class, double.class, double.class, Random.class);
+    static final MethodHandle NEW_DISTANCES = constructor(DISTANCES, int[][].class, int[].class, int[].class);
+
+    static final MethodHandle EVAPORATE = method(MAZE, "evaporate", void.class, double.class);
+    static final MethodHandle ADD_PHEROMONE_ROUTES = method(MAZE, "addPheromoneRoutes", int.class, List.class, double.class);
+    static final MethodHandle SURROUNDING_PHEROMONE = method(MAZE, "getSurroundingPheromone", load("SurroundingPheromone"), COORDINATE);
+    static final MethodHandle MOVE = method(ANT, "move", void.class);
+    static final MethodHandle FIND_ROUTE = method(ANT, "findRoute", ROUTE);
+    static final MethodHandle HAS_REACHED_END = method(ANT, "hasReachedEnd", boolean.class);
+    static final MethodHandle CREATE_CROSS_OVER = method(GA, "createCrossOver", CHROMOSOME, CHROMOSOME, CHROMOSOME);
+    static final MethodHandle ROULETTE_CHROMOSOME = method(GA, "getRouletteChromosome", CHROMOSOME, List.class);
+    static final MethodHandle CALCULATE_FITNESS = method(GA, "calculateFitness", void.class, List.class, DISTANCES);
+    static final MethodHandle INITIALIZE_POPULATION = method(GA, "initializePopulation", void.class, List.class, DISTANCES);
+    static final MethodHandle READ_TSP = staticMethod(TSP, "readFromFile", TSP, String.class);
+    static final MethodHandle READ_SPECIFICATION = staticMethod(TSP, "readSpecification", TSP, String.class, String.class);
+    static final MethodHandle CALCULATE_ROUTES = method(TSP, "calculateRoutes", void.class, ACO);
+    static final MethodHandle WRITE_TSP = method(TSP, "writeToFile", void.class, String.class);
+    static final MethodHandle WRITE_ACTION_FILE = method(TSP, "writeActionFile", void.class, int[].class, String.class);
+
+    private Targets() {
+    }
+
+    /**
+     * Switch off the debug output of the solvers.
+     */
+    static void quiet() throws ReflectiveOperationException {
+        ACO.getField("DEBUG").setBoolean(null, false);
+        GA.getField("DEBUG").setBoolean(null, false);
+    }
+
+    private static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Solver classes must be on the classpath", e);
+        }
+    }
+
+    /**
+     * Constructor handle with every reference type erased to Object.
+     */
+    private static MethodHandle constructor(Class<?> owner, Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findConstructor(owner, methodType(void.class, parameters));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Instance method handle with the receiver and every reference type erased to Object.
+     */
+    private static MethodHandle method(Class<?> owner, String name, Class<?> returnType, Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findVirtual(owner, name, methodType(returnType, parameters));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Static method handle with every reference type erased to Object.
+     */
+    private static MethodHandle staticMethod(Class<?> owner, String name, Class<?> returnType, Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findStatic(owner, name, methodType(returnType, parameters));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
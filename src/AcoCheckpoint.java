@@ -0,0 +1,302 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * State of an AntColonyOptimization run after a generation, enough to continue the run in a new JVM with the
+ * same result. The file holds, big-endian:
+ *      int magic "ACOC", int version, int generation, int width, int length, int slot count
+ *      int byte count, byte[] the serialised java.util.Random of the colony
+ *      int start x, int start y, int route size, byte[] directions of the best route, 4 per byte, 2 bits each
+ *             holding Direction.ordinal(), first direction in the low bits
+ *      double[] pheromone per slot of the cell layout
+ * Files are written next to the target and then moved over it, so a crash while writing keeps the previous
+ * checkpoint.
+ */
+public class AcoCheckpoint {
+    private static final int MAGIC = 0x41434F43;
+    private static final int VERSION = 1;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final int generation;
+    private final int width;
+    private final int length;
+    private final byte[] random;
+    private final Route bestRoute;
+    private final double[] pheromones;
+
+    private AcoCheckpoint(int generation, int width, int length, byte[] random, Route bestRoute, double[] pheromones) {
+        this.generation = generation;
+        this.width = width;
+        this.length = length;
+        this.random = random;
+        this.bestRoute = bestRoute;
+        this.pheromones = pheromones;
+    }
+
+    /**
+     * Take a checkpoint of a run. The pheromone is copied, so the maze may change right after.
+     * @param generation The last completed generation.
+     * @param maze The maze of the colony.
+     * @param random The randomizer of the colony.
+     * @param bestRoute The shortest route so far, must not change afterwards.
+     * @return AcoCheckpoint The checkpoint.
+     */
+    public static AcoCheckpoint capture(int generation, Maze maze, Random random, Route bestRoute) {
+        return capture(generation, maze, random, bestRoute, new double[maze.getCellCount()]);
+    }
+
+    private static AcoCheckpoint capture(int generation, Maze maze, Random random, Route bestRoute, double[] pheromones) {
+        maze.copyPheromones(pheromones);
+        return new AcoCheckpoint(generation, maze.width, maze.length, serialise(random), bestRoute, pheromones);
+    }
+
+    private static byte[] serialise(Random random) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(random);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Read a checkpoint file.
+     * @param filePath Path to the checkpoint.
+     * @return AcoCheckpoint The checkpoint.
+     */
+    public static AcoCheckpoint read(String filePath) throws IOException {
+        ByteBuffer in;
+        try (FileInputStream input = new FileInputStream(filePath)) {
+            FileChannel channel = input.getChannel();
+            in = ByteBuffer.allocate((int) channel.size());
+            while (in.hasRemaining() && channel.read(in) >= 0) ;
+        }
+        in.flip();
+        if (in.getInt() != MAGIC) throw new IllegalArgumentException("Not an ACO checkpoint");
+        int version = in.getInt();
+        if (version != VERSION) throw new IllegalArgumentException("Unsupported ACO checkpoint version " + version);
+        int generation = in.getInt();
+        int width = in.getInt();
+        int length = in.getInt();
+        double[] pheromones = new double[in.getInt()];
+        byte[] random = new byte[in.getInt()];
+        in.get(random);
+
+        Route bestRoute = new Route(new Coordinate(in.getInt(), in.getInt()));
+        int size = in.getInt();
+        for (int i = 0; i < size; i += 4) {
+            int packed = in.get() & 0xFF;
+            for (int j = i; j < size && j < i + 4; j++, packed >>>= 2) {
+                bestRoute.add(DIRECTIONS[packed & 3]);
+            }
+        }
+        in.asDoubleBuffer().get(pheromones);
+        return new AcoCheckpoint(generation, width, length, random, bestRoute, pheromones);
+    }
+
+    /**
+     * Write the checkpoint to a file, replacing an older checkpoint only once the new one is complete.
+     * @param filePath Path to the checkpoint.
+     */
+    public void write(String filePath) throws IOException {
+        write(filePath, ByteBuffer.allocate(CHUNK_SIZE));
+    }
+
+    /**
+     * Write the checkpoint through a buffer that is drained into the file whenever it fills up, so the memory
+     * used does not grow with the size of the maze.
+     * @param filePath Path to the checkpoint.
+     * @param out The buffer, at least as large as the header and the serialised randomizer.
+     */
+    private void write(String filePath, ByteBuffer out) throws IOException {
+        String partFile = filePath + ".part";
+        try (FileOutputStream output = new FileOutputStream(partFile)) {
+            FileChannel channel = output.getChannel();
+            out.clear();
+            out.putInt(MAGIC).putInt(VERSION).putInt(generation).putInt(width).putInt(length).putInt(pheromones.length);
+            out.putInt(random.length).put(random);
+            out.putInt(bestRoute.getStart().getX()).putInt(bestRoute.getStart().getY());
+            List<Direction> route = bestRoute.getRoute();
+            out.putInt(route.size());
+            for (int i = 0; i < route.size(); i += 4) {
+                if (!out.hasRemaining()) drain(out, channel);
+                int packed = 0;
+                for (int j = Math.min(i + 3, route.size() - 1); j >= i; j--) {
+                    packed = packed << 2 | route.get(j).ordinal();
+                }
+                out.put((byte) packed);
+            }
+            for (int i = 0; i < pheromones.length; ) {
+                if (out.remaining() < 8) drain(out, channel);
+                DoubleBuffer doubles = out.asDoubleBuffer();
+                int count = Math.min(doubles.remaining(), pheromones.length - i);
+                doubles.put(pheromones, i, count);
+                out.position(out.position() + count * 8);
+                i += count;
+            }
+            drain(out, channel);
+            channel.force(false);
+        }
+        Files.move(Paths.get(partFile), Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void drain(ByteBuffer out, FileChannel channel) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+
+    /**
+     * Put the pheromone of the checkpoint back into a maze.
+     * @param maze The maze, with the same size and cell layout as the maze the checkpoint was taken of.
+     */
+    public void restore(Maze maze) {
+        if (maze.width != width || maze.length != length || maze.getCellCount() != pheromones.length) {
+            throw new IllegalArgumentException("Checkpoint of a " + width + "x" + length + " maze with " + pheromones.length
+                    + " slots does not match a " + maze.width + "x" + maze.length + " maze with " + maze.getCellCount() + " slots");
+        }
+        maze.restorePheromones(pheromones);
+    }
+
+    /**
+     * The randomizer of the colony, in the state it had when the checkpoint was taken.
+     * @return Random A new randomizer.
+     */
+    public Random getRandom() {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(random))) {
+            return (Random) in.readObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public Route getBestRoute() {
+        return bestRoute;
+    }
+
+    /**
+     * Writes checkpoints on a background thread. The solver only pays for copying the pheromone; if the
+     * previous checkpoint is still being written the new one is skipped rather than making the ants wait,
+     * except for the checkpoint of the last generation, which waits for it.
+     */
+    public static class Writer implements Closeable {
+        private final String filePath;
+        private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "aco-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private Future<?> pending;
+        private double[] buffer = new double[0];
+        private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+        private int skipped;
+
+        /**
+         * Constructor of the writer.
+         * @param filePath Path to the checkpoint file.
+         */
+        public Writer(String filePath) {
+            this.filePath = filePath;
+        }
+
+        /**
+         * Write a checkpoint of a run unless the previous one is still being written.
+         * @param generation The last completed generation.
+         * @param maze The maze of the colony.
+         * @param random The randomizer of the colony.
+         * @param bestRoute The shortest route so far.
+         * @return boolean Whether the checkpoint was taken.
+         */
+        public boolean offer(int generation, Maze maze, Random random, Route bestRoute) {
+            if (pending != null && !pending.isDone()) {
+                skipped++;
+                return false;
+            }
+            put(generation, maze, random, bestRoute);
+            return true;
+        }
+
+        /**
+         * Write a checkpoint of a run, waiting for the previous one to be written first. Meant for the last
+         * generation, whose checkpoint must not be skipped.
+         * @param generation The last completed generation.
+         * @param maze The maze of the colony.
+         * @param random The randomizer of the colony.
+         * @param bestRoute The shortest route so far.
+         */
+        public void put(int generation, Maze maze, Random random, Route bestRoute) {
+            if (pending != null) finish();
+            // the copy is only reused once the previous checkpoint is written
+            if (buffer.length != maze.getCellCount()) buffer = new double[maze.getCellCount()];
+            AcoCheckpoint checkpoint = capture(generation, maze, random, bestRoute, buffer);
+            pending = executor.submit(() -> {
+                checkpoint.write(filePath, chunk);
+                return null;
+            });
+        }
+
+        /**
+         * Number of checkpoints skipped because the previous one was still being written.
+         * @return int The number of skipped checkpoints.
+         */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * Wait for the checkpoint being written and rethrow its failure.
+         */
+        private void finish() {
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while writing a checkpoint", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) throw new UncheckedIOException((IOException) e.getCause());
+                throw new IllegalStateException("Writing a checkpoint failed", e.getCause());
+            } finally {
+                pending = null;
+            }
+        }
+
+        /**
+         * Wait for the last checkpoint and stop the background thread.
+         */
+        @Override
+        public void close() {
+            try {
+                if (pending != null) finish();
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+}
@@ -9,8 +9,11 @@ public class Ant {
     private Coordinate end;
     private Coordinate currentPosition;
     private Route route;
-	private boolean[][] visitedMaze;
+	private boolean[] visitedMaze;
 	private Stack<Direction> directionStack;
+	private Random random;
+	private int backtracks;
+	private int moves;
 
     /**
      * Constructor for ant taking a Maze and PathSpecification.
@@ -18,25 +21,88 @@ public class Ant {
      * @param spec The path specification consisting of a start coordinate and an end coordinate.
      */
     public Ant(Maze maze, PathSpecification spec) {
+        this(maze, spec, new Random());
+    }
+
+    /**
+     * Constructor for ant taking a Maze, PathSpecification and the randomizer used for its choices.
+     * @param maze Maze the ant will be running in.
+     * @param spec The path specification consisting of a start coordinate and an end coordinate.
+     * @param random The randomizer.
+     * @throws IllegalArgumentException If the start or the end is not an open tile of the maze.
+     */
+    public Ant(Maze maze, PathSpecification spec, Random random) {
+        checkSpecification(maze, spec);
         this.maze = maze;
+        this.random = random;
         this.start = spec.getStart();
         this.end = spec.getEnd();
         this.currentPosition = start;
         this.route = new Route(start);
-		this.visitedMaze = new boolean[maze.width][maze.length];
+		this.visitedMaze = new boolean[maze.getCellCount()];
 		this.directionStack = new Stack<>();
     }
 
+    /**
+     * Reject a path specification whose start or end the maze has no slot for.
+     * @param maze The maze.
+     * @param spec The path specification.
+     */
+    static void checkSpecification(Maze maze, PathSpecification spec) {
+        if (!maze.isPassable(spec.getStart()) || !maze.isPassable(spec.getEnd())) {
+            throw new IllegalArgumentException("Start " + spec.getStart() + " and end " + spec.getEnd()
+                    + " must be open tiles of the maze");
+        }
+    }
+
     /**
      * Method that performs a single run through the maze by the ant.
      * @return The route the ant found through the maze.
      */
     public Route findRoute() {
     	if (route.size() > 0) return route;
-        while (!currentPosition.equals(end)) move();
+        while (!hasReachedEnd()) move();
         return route;
     }
 
+    /**
+     * Method that performs a single run through the maze, giving up once the route grows beyond a length.
+     * @param maxSize The longest route the ant may hold while walking.
+     * @return The route the ant found through the maze, null if the ant gave up.
+     */
+    public Route findRoute(int maxSize) {
+        if (route.size() > 0) return route;
+        while (!hasReachedEnd()) {
+            move();
+            if (route.size() > maxSize) return null;
+        }
+        return route;
+    }
+
+    /**
+     * Check whether the ant stands on the end coordinate.
+     * @return boolean Whether the ant reached the end.
+     */
+    public boolean hasReachedEnd() {
+        return currentPosition.equals(end);
+    }
+
+    /**
+     * Number of steps the ant walked back out of dead ends.
+     * @return int The number of backtrack steps.
+     */
+    public int getBacktracks() {
+        return backtracks;
+    }
+
+    /**
+     * Number of steps the ant took, forward and back.
+     * @return int The number of steps.
+     */
+    public int getSteps() {
+        return moves + backtracks;
+    }
+
     /**
      * This method will move the Ant. If there is just one movable direction, the ant will go that way. If the
      * ant has two ways, but one is the previous tile, it will remove that tile and proceed on to his path. If
@@ -52,7 +118,7 @@ public class Ant {
 			return;
 		}
 		
-		double randomNumber = new Random().nextDouble();
+		double randomNumber = random.nextDouble();
 		double total = 0.0d;
 		SurroundingPheromone surroundingPheromone = maze.getSurroundingPheromone(currentPosition);
 		double totalSurroundingPheromone = 0.0d;
@@ -67,8 +133,9 @@ public class Ant {
 				// We got a hit!
 				// Moving to the next tile...
 				route.add(direction);
+				moves++;
 				directionStack.push(direction);
-				visitedMaze[currentPosition.getX()][currentPosition.getY()] = true; // Must happen before changing currentPosition!
+				visitedMaze[maze.getCellIndex(currentPosition)] = true; // Must happen before changing currentPosition!
 				currentPosition = currentPosition.add(direction);
 				break;
 			}
@@ -80,7 +147,7 @@ public class Ant {
 	 * This works for any number of junctions deep.
 	 */
 	private void backtrack() {
-		visitedMaze[currentPosition.getX()][currentPosition.getY()] = true;
+		visitedMaze[maze.getCellIndex(currentPosition)] = true;
 		int counter = 0;
 		while (getCompetingDirections(currentPosition).size() == 0) {
 			counter++;
@@ -89,6 +156,7 @@ public class Ant {
 		for (int i = 0; i < counter; i++) {
 			route.removeLast();
 		}
+		backtracks += counter;
 	}
 
 	/**
@@ -100,16 +168,16 @@ public class Ant {
 	private EnumMap<Direction, Double> getCompetingDirections(Coordinate position) {
 		EnumMap<Direction, Double> directions = new EnumMap<>(Direction.class);
     	
-    	if (maze.isPassable(position.add(Direction.North)) && !visitedMaze[currentPosition.getX()][currentPosition.getY()-1])
+    	if (maze.isPassable(position.add(Direction.North)) && !visitedMaze[maze.getCellIndex(position.add(Direction.North))])
 			directions.put(Direction.North, maze.getPheromone(position.add(Direction.North)));
 
-    	if (maze.isPassable(position.add(Direction.East)) && !visitedMaze[currentPosition.getX()+1][currentPosition.getY()])
+    	if (maze.isPassable(position.add(Direction.East)) && !visitedMaze[maze.getCellIndex(position.add(Direction.East))])
 			directions.put(Direction.East, maze.getPheromone(position.add(Direction.East)));
 
-    	if (maze.isPassable(position.add(Direction.South)) && !visitedMaze[currentPosition.getX()][currentPosition.getY()+1])
+    	if (maze.isPassable(position.add(Direction.South)) && !visitedMaze[maze.getCellIndex(position.add(Direction.South))])
 			directions.put(Direction.South, maze.getPheromone(position.add(Direction.South)));
 
-    	if (maze.isPassable(position.add(Direction.West)) && !visitedMaze[currentPosition.getX()-1][currentPosition.getY()])
+    	if (maze.isPassable(position.add(Direction.West)) && !visitedMaze[maze.getCellIndex(position.add(Direction.West))])
 			directions.put(Direction.West, maze.getPheromone(position.add(Direction.West)));
     	
     	return directions;
@@ -1,18 +1,34 @@
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Class representing the first assignment. Finds shortest path between two points in a maze according to a specific
  * path specification.
  */
-public class AntColonyOptimization {
+public class AntColonyOptimization implements PathSolver {
     private int antsPerGeneration;
     private int numberOfGenerations;
     private double qualityFactor;
     private double evaporationFactor;
     private Maze maze;
-    public static boolean DEBUG = true;
+    private Random random;
+    private final RunListeners listeners = new RunListeners();
+    private double minPheromone;
+    private double maxPheromone = Double.POSITIVE_INFINITY;
+    private String checkpointFile;
+    private int checkpointInterval;
+    private boolean bidirectional;
+    private VisitStamps stamps;
+    private double lengthCap;
+    private boolean optimizeRoutes = true;
+    private RouteOptimizer optimizer;
+    private long abandonedAnts;
+    private long stepsSaved;
+    private int shortestWalk = Integer.MAX_VALUE;
+    public static boolean DEBUG = false;
  
     public AntColonyOptimization(Maze maze, int antsPerGeneration, int numberOfGenerations, double qualityFactor, double evaporationFactor) {
         this.maze = maze;
@@ -20,6 +36,125 @@ public class AntColonyOptimization {
         this.numberOfGenerations = numberOfGenerations;
         this.qualityFactor = qualityFactor;
         this.evaporationFactor = evaporationFactor;
+        this.random = new Random();
+    }
+
+    /**
+     * Keep the pheromone of every open tile within bounds after each evaporation, as in MAX-MIN ant systems.
+     * @param min The lower bound, 0 for none.
+     * @param max The upper bound, Double.POSITIVE_INFINITY for none.
+     */
+    public void setPheromoneBounds(double min, double max) {
+        this.minPheromone = min;
+        this.maxPheromone = max;
+    }
+
+    /**
+     * Let every ant walk from both ends at once with a {@link BidirectionalAnt}, instead of from the start only.
+     * @param bidirectional Whether to use bidirectional ants.
+     */
+    public void setBidirectional(boolean bidirectional) {
+        this.bidirectional = bidirectional;
+    }
+
+    /**
+     * Let ants give up once their route grows beyond a multiple of the shortest route so far. Such ants could
+     * at best find a route much longer than the known one, so they deposit no pheromone. The multiple applies to
+     * the shortest route as an ant walked it, loops included, not to the optimized route, since the cap is
+     * checked while the ant walks.
+     * @param lengthCap The multiple of the size of the shortest walked route, at least 1; 0 lets every ant finish.
+     */
+    public void setLengthCap(double lengthCap) {
+        this.lengthCap = lengthCap;
+    }
+
+    /**
+     * Remove loops and detours from every route with a {@link RouteOptimizer} before it deposits pheromone
+     * and before it can become the result. On by default.
+     * @param optimizeRoutes Whether to optimize the routes.
+     */
+    public void setOptimizeRoutes(boolean optimizeRoutes) {
+        this.optimizeRoutes = optimizeRoutes;
+    }
+
+    /**
+     * Shorten a route found by an ant if route optimization is on.
+     * @param route The route.
+     * @return Route The optimized route.
+     */
+    private Route optimize(Route route) {
+        if (!optimizeRoutes) return route;
+        if (optimizer == null) optimizer = new RouteOptimizer(maze);
+        return optimizer.optimize(route);
+    }
+
+    /**
+     * Number of ants of the last run that gave up because of the length cap.
+     * @return long The number of ants.
+     */
+    public long getAbandonedAnts() {
+        return abandonedAnts;
+    }
+
+    /**
+     * Estimated number of steps the length cap saved in the last run: per abandoned ant the average steps of
+     * the ants that completed in its generation, minus the steps it walked. A generation in which every ant
+     * was abandoned adds nothing.
+     * @return long The number of steps.
+     */
+    public long getStepsSaved() {
+        return stepsSaved;
+    }
+
+    /**
+     * Write a checkpoint of the run every few generations, so a long run can be continued with resume() after
+     * the JVM is restarted. Checkpoints are written on a background thread from a copy of the pheromone.
+     * @param filePath Path to the checkpoint file, null to switch checkpoints off.
+     * @param interval Number of generations between two checkpoints, at least 1.
+     */
+    public void setCheckpoint(String filePath, int interval) {
+        if (filePath != null && interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1, not " + interval);
+        }
+        this.checkpointFile = filePath;
+        this.checkpointInterval = interval;
+    }
+
+    /**
+     * Continue a run from a checkpoint until numberOfGenerations generations are completed. The maze must have
+     * the walls and cell layout of the maze of the interrupted run; its pheromone is replaced.
+     * @param filePath Path to the checkpoint file.
+     * @param spec {@link PathSpecification} of the route we wish to optimize.
+     * @param progress Receives the size of the shortest route whenever it improves, may be null.
+     * @return ACO optimized {@link Route}.
+     */
+    public Route resume(String filePath, PathSpecification spec, SolverProgress progress) throws IOException {
+        AcoCheckpoint checkpoint = AcoCheckpoint.read(filePath);
+        abandonedAnts = 0;
+        stepsSaved = 0;
+        checkpoint.restore(maze);
+        this.random = checkpoint.getRandom();
+        Route shortestRoute = checkpoint.getBestRoute();
+        // the checkpoint keeps the optimized route only, so the cap waits for the first ant to finish
+        shortestWalk = Integer.MAX_VALUE;
+        if (progress != null) progress.improved(shortestRoute.size());
+        return findShortestRoute(spec, shortestRoute, checkpoint.getGeneration() + 1, numberOfGenerations, progress);
+    }
+
+    /**
+     * Attach a listener receiving the statistics of every generation.
+     * @param listener The listener.
+     */
+    public void addListener(RunListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Detach a listener.
+     * @param listener The listener.
+     */
+    public void removeListener(RunListener listener) {
+        listeners.remove(listener);
     }
 
     /**
@@ -33,30 +168,155 @@ public class AntColonyOptimization {
      * @return ACO optimized {@link Route}.
      */
     public Route findShortestRoute(PathSpecification spec) {
+        return findShortestRoute(spec, null);
+    }
+
+    @Override
+    public Route findShortestRoute(PathSpecification spec, long seed, SolverProgress progress) {
+        this.random = new Random(seed);
+        return findShortestRoute(spec, progress);
+    }
+
+    /**
+     * Finds the shortest route by applying ACO, with the current randomizer.
+     * @param spec {@link PathSpecification} of the route we wish to optimize.
+     * @param progress Receives the size of the shortest route whenever it improves, may be null.
+     * @return ACO optimized {@link Route}.
+     */
+    private Route findShortestRoute(PathSpecification spec, SolverProgress progress) {
+        abandonedAnts = 0;
+        stepsSaved = 0;
+        Route shortestRoute = firstRoute(spec);
+        if (progress != null) progress.improved(shortestRoute.size());
+        return findShortestRoute(spec, shortestRoute, 1, numberOfGenerations, progress);
+    }
+
+    /**
+     * Seed the randomizer and let a first ant find a route, for colonies that are run a few generations at a
+     * time by {@link MultiColonyOptimization}.
+     * @param spec {@link PathSpecification} of the route we wish to optimize.
+     * @param seed The seed of the randomizer.
+     * @return Route The route of the first ant.
+     */
+    Route start(PathSpecification spec, long seed) {
+        this.random = new Random(seed);
+        abandonedAnts = 0;
+        stepsSaved = 0;
+        return firstRoute(spec);
+    }
+
+    /**
+     * Let a first ant find a route without a cap, remembering its size before it is optimized.
+     */
+    private Route firstRoute(PathSpecification spec) {
+        Route route = new Ant(maze, spec, random).findRoute();
+        shortestWalk = route.size();
+        return optimize(route);
+    }
+
+    /**
+     * Run some generations of a colony started with start().
+     * @param spec {@link PathSpecification} of the route we wish to optimize.
+     * @param shortestRoute The shortest route so far.
+     * @param firstGeneration The first generation to run.
+     * @param lastGeneration The last generation to run.
+     * @return Route The shortest route after the last generation.
+     */
+    Route runGenerations(PathSpecification spec, Route shortestRoute, int firstGeneration, int lastGeneration) {
+        return findShortestRoute(spec, shortestRoute, firstGeneration, lastGeneration, null);
+    }
+
+    Maze getMaze() {
+        return maze;
+    }
+
+    /**
+     * Run a range of generations of ACO.
+     * @param spec {@link PathSpecification} of the route we wish to optimize.
+     * @param shortestRoute The shortest route so far.
+     * @param firstGeneration The first generation to run.
+     * @param lastGeneration The last generation to run.
+     * @param progress Receives the size of the shortest route whenever it improves, may be null.
+     * @return ACO optimized {@link Route}.
+     */
+    private Route findShortestRoute(PathSpecification spec, Route shortestRoute, int firstGeneration, int lastGeneration,
+                                    SolverProgress progress) {
         List<Route> routes = new ArrayList<>();
-        Route shortestRoute = new Ant(maze, spec).findRoute();
-        for (int generation = 1; generation <= numberOfGenerations; generation++) {
-            long startTime = System.currentTimeMillis();
-            for (int ant = 1; ant <= antsPerGeneration; ant++) {
-                if (DEBUG) System.out.print("\rAnt: " + ant);
-                routes.add(new Ant(maze, spec).findRoute());
-        	}
-        	int shortestRouteThisGeneration = Integer.MAX_VALUE;
-        	int averageRouteSize = 0;
-            for (Route route : routes) {
-                averageRouteSize += (route.size() / routes.size());
-                if (route.size() < shortestRouteThisGeneration) shortestRouteThisGeneration = route.size();
-                if (route.shorterThan(shortestRoute)) shortestRoute = route;
+        AcoCheckpoint.Writer checkpoints = checkpointFile == null ? null : new AcoCheckpoint.Writer(checkpointFile);
+        try {
+            for (int generation = firstGeneration; generation <= lastGeneration; generation++) {
+                boolean instrumented = listeners.isActive();
+                long startTime = instrumented ? System.nanoTime() : 0;
+                long backtracks = 0;
+                int maxSize = lengthCap > 0 && shortestWalk < Integer.MAX_VALUE
+                        ? (int) Math.min(Integer.MAX_VALUE, Math.ceil(lengthCap * shortestWalk)) : Integer.MAX_VALUE;
+                int abandoned = 0;
+                long abandonedSteps = 0;
+                long completedSteps = 0;
+                for (int ant = 1; ant <= antsPerGeneration; ant++) {
+                    Route route;
+                    int steps;
+                    if (bidirectional) {
+                        if (stamps == null) stamps = new VisitStamps(maze.getCellCount());
+                        BidirectionalAnt walker = new BidirectionalAnt(maze, spec, random, stamps);
+                        route = walker.findRoute(maxSize);
+                        steps = walker.getSteps();
+                        backtracks += walker.getBacktracks();
+                    } else {
+                        Ant walker = new Ant(maze, spec, random);
+                        route = walker.findRoute(maxSize);
+                        steps = walker.getSteps();
+                        backtracks += walker.getBacktracks();
+                    }
+                    if (route == null) {
+                        abandoned++;
+                        abandonedSteps += steps;
+                    } else {
+                        shortestWalk = Math.min(shortestWalk, route.size());
+                        routes.add(optimize(route));
+                        completedSteps += steps;
+                    }
+                }
+                // without a completed ant in this generation there is nothing to estimate the savings from
+                long saved = abandoned == 0 || routes.isEmpty() ? 0
+                        : Math.max(0, Math.round(abandoned * completedSteps / (double) routes.size()) - abandonedSteps);
+                abandonedAnts += abandoned;
+                stepsSaved += saved;
+                LengthHistogram lengths = instrumented ? new LengthHistogram() : null;
+                int shortestRouteThisGeneration = routes.isEmpty() ? 0 : Integer.MAX_VALUE;
+                long totalRouteSize = 0;
+                for (Route route : routes) {
+                    if (instrumented) {
+                        lengths.record(route.size());
+                        totalRouteSize += route.size();
+                        if (route.size() < shortestRouteThisGeneration) shortestRouteThisGeneration = route.size();
+                    }
+                    if (route.shorterThan(shortestRoute)) {
+                        shortestRoute = route;
+                        if (progress != null) progress.improved(shortestRoute.size());
+                    }
+                }
+                int duplicates = routes.size() - maze.addPheromoneRoutes(routes, qualityFactor);
+                long evaporationStart = instrumented ? System.nanoTime() : 0;
+                maze.evaporate(evaporationFactor); //Evaporate after every generation
+                if (minPheromone > 0 || maxPheromone < Double.POSITIVE_INFINITY) maze.clampPheromones(minPheromone, maxPheromone);
+                if (instrumented) {
+                    long endTime = System.nanoTime();
+                    listeners.publish(new GenerationStats("ACO", generation, routes.size(), shortestRoute.size(),
+                            shortestRouteThisGeneration, routes.isEmpty() ? 0 : totalRouteSize / (double) routes.size(),
+                            endTime - startTime, backtracks, endTime - evaporationStart, lengths, abandoned, saved, duplicates));
+                }
+                routes.clear();
+                if (checkpoints != null && generation == lastGeneration) {
+                    checkpoints.put(generation, maze, random, shortestRoute);
+                } else if (checkpoints != null && generation % checkpointInterval == 0) {
+                    if (!checkpoints.offer(generation, maze, random, shortestRoute) && DEBUG) {
+                        System.out.println("[ACO] Skipped checkpoint of generation " + generation + ", previous one still being written");
+                    }
+                }
             }
-            if (DEBUG) System.out.println(
-                            "\rGeneration: " + generation +
-                            "\tTime taken: " + ((System.currentTimeMillis() - startTime) / 1000.0) + "s" +
-                            "\t\tAverage: " + averageRouteSize +
-                            "\tShortest: " + shortestRouteThisGeneration +
-                            "\t\tTotal Shortest: " + shortestRoute.size());
-            maze.addPheromoneRoutes(routes, qualityFactor);
-            routes.clear();
-            maze.evaporate(evaporationFactor); //Evaporate after every generation
+        } finally {
+            if (checkpoints != null) checkpoints.close();
         }
         return shortestRoute;
     }
@@ -75,9 +335,10 @@ public class AntColonyOptimization {
         Maze maze = Maze.createMaze("./data/"+mazeName+" maze.txt", initialPheromoneValue);
         PathSpecification spec = PathSpecification.readCoordinates("./data/"+mazeName+" coordinates.txt");
         AntColonyOptimization aco = new AntColonyOptimization(maze, antsPerGeneration, numberOfGenerations, qualityFactor, evaporationFactor);
+        aco.addListener(new ConsoleRunListener());
         long startTime = System.currentTimeMillis();
         Route shortestRoute = aco.findShortestRoute(spec);
-        System.out.println("\nTime taken: " + ((System.currentTimeMillis() - startTime) / 1000.0) + " Seconds");
+        System.out.println("Time taken: " + ((System.currentTimeMillis() - startTime) / 1000.0) + " Seconds");
         shortestRoute.writeToFile("./data/"+mazeName+" solution.txt");
         System.out.println("Shortest Route size: " + shortestRoute.size());
     }
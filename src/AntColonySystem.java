@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * TSP problem solver using an Ant Colony System over the product distances. Ants walk from the start point
+ * through all products, choosing the next product from a candidate list of its nearest products. The ants of one
+ * iteration are built in parallel against a read-only pheromone matrix; the local pheromone update of ACS is
+ * applied afterwards, followed by the global update along the best order so far.
+ */
+public class AntColonySystem implements TourSolver {
+    private static final int CANDIDATES = 15;
+    private static final double BETA = 2.0d;
+    private static final double EXPLOITATION = 0.9d;
+    private static final double EVAPORATION = 0.1d;
+    private static final double LOCAL_EVAPORATION = 0.1d;
+
+    private final int ants;
+    private final int iterations;
+    private ProductDistances pd;
+    private int n;
+
+    // flat matrices indexed by from * n + to, from == n is the start point
+    private double[] pheromones;
+    private double[] heuristic;
+    private int[][] candidates;
+    private double initialPheromone;
+
+    private int[] bestOrder;
+    private long bestLength = Long.MAX_VALUE;
+    public static boolean DEBUG = false;
+
+    /**
+     * Constructor of the colony.
+     * @param ants Number of ants per iteration.
+     * @param iterations Number of iterations.
+     */
+    public AntColonySystem(int ants, int iterations) {
+        this.ants = ants;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Build the heuristic matrix and candidate lists for the product distances.
+     * @param pd The product distances.
+     */
+    private void prepare(ProductDistances pd) {
+        this.pd = pd;
+        this.n = pd.size();
+        this.pheromones = new double[(n + 1) * n];
+        this.heuristic = new double[(n + 1) * n];
+        this.candidates = new int[n + 1][];
+        for (int from = 0; from <= n; from++) {
+            for (int to = 0; to < n; to++) {
+                heuristic[from * n + to] = Math.pow(1.0d / Math.max(distance(from, to), 1), BETA);
+            }
+            candidates[from] = nearest(from, Math.min(CANDIDATES, n));
+        }
+    }
+
+    /**
+     * Solves the TSP with the colony.
+     * @param pd The product distances.
+     * @param seed The seed of the ants.
+     * @param progress Receives every improvement of the best order, may be null.
+     * @return int[] The best order of items found.
+     */
+    @Override
+    public int[] solve(ProductDistances pd, long seed, SolverProgress progress) {
+        prepare(pd);
+        bestOrder = TourConstruction.nearestNeighbour(pd);
+        bestLength = pd.length(bestOrder);
+        initialPheromone = 1.0d / (Math.max(n, 1) * (double) Math.max(bestLength, 1));
+        Arrays.fill(pheromones, initialPheromone);
+
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            final long iterationSeed = seed + iteration * 0x9E3779B97F4A7C15L;
+            int[][] orders = IntStream.range(0, ants).parallel()
+                    .mapToObj(ant -> construct(new Random(iterationSeed + ant)))
+                    .toArray(int[][]::new);
+
+            for (int[] order : orders) {
+                localUpdate(order);
+                long length = pd.length(order);
+                if (length < bestLength) {
+                    bestLength = length;
+                    bestOrder = order;
+                    if (progress != null) progress.improved(length);
+                }
+            }
+            globalUpdate();
+            if (DEBUG) System.out.println("Iteration: " + iteration + "\tShortest: " + bestLength);
+        }
+        return bestOrder.clone();
+    }
+
+    /**
+     * Build the order of a single ant. With chance EXPLOITATION the ant takes the best candidate, otherwise it
+     * picks a candidate by roulette wheel. If all candidates are visited the best remaining product is taken.
+     * @param random The randomizer of the ant.
+     * @return int[] The order of the ant.
+     */
+    private int[] construct(Random random) {
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int current = n;
+        for (int step = 0; step < n; step++) {
+            int next = -1;
+            if (random.nextDouble() < EXPLOITATION) {
+                next = bestCandidate(current, visited);
+            } else {
+                double total = 0.0d;
+                for (int to : candidates[current]) {
+                    if (!visited[to]) total += pheromones[current * n + to] * heuristic[current * n + to];
+                }
+                double wheel = random.nextDouble() * total;
+                for (int to : candidates[current]) {
+                    if (visited[to]) continue;
+                    wheel -= pheromones[current * n + to] * heuristic[current * n + to];
+                    next = to;
+                    if (wheel <= 0) break;
+                }
+            }
+            if (next < 0) next = bestRemaining(current, visited);
+            visited[next] = true;
+            order[step] = next;
+            current = next;
+        }
+        return order;
+    }
+
+    /**
+     * Best unvisited product on the candidate list.
+     * @param from The current node.
+     * @param visited Whether a product is visited.
+     * @return int The product, -1 if all candidates are visited.
+     */
+    private int bestCandidate(int from, boolean[] visited) {
+        int best = -1;
+        double bestValue = -1;
+        for (int to : candidates[from]) {
+            double value = pheromones[from * n + to] * heuristic[from * n + to];
+            if (!visited[to] && value > bestValue) {
+                bestValue = value;
+                best = to;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Best unvisited product of all products.
+     * @param from The current node.
+     * @param visited Whether a product is visited.
+     * @return int The product.
+     */
+    private int bestRemaining(int from, boolean[] visited) {
+        int best = -1;
+        double bestValue = -1;
+        for (int to = 0; to < n; to++) {
+            double value = pheromones[from * n + to] * heuristic[from * n + to];
+            if (!visited[to] && value > bestValue) {
+                bestValue = value;
+                best = to;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * ACS local update, moving the pheromone on the edges of an order towards the initial value.
+     * @param order The order of an ant.
+     */
+    private void localUpdate(int[] order) {
+        int from = n;
+        for (int to : order) {
+            int edge = from * n + to;
+            pheromones[edge] = (1 - LOCAL_EVAPORATION) * pheromones[edge] + LOCAL_EVAPORATION * initialPheromone;
+            from = to;
+        }
+    }
+
+    /**
+     * ACS global update, reinforcing the edges of the best order so far.
+     */
+    private void globalUpdate() {
+        double deposit = 1.0d / Math.max(bestLength, 1);
+        int from = n;
+        for (int to : bestOrder) {
+            int edge = from * n + to;
+            pheromones[edge] = (1 - EVAPORATION) * pheromones[edge] + EVAPORATION * deposit;
+            from = to;
+        }
+    }
+
+    /**
+     * The nearest products of a node.
+     * @param from The node, n for the start point.
+     * @param k Number of products.
+     * @return int[] The k nearest products, nearest first.
+     */
+    private int[] nearest(int from, int k) {
+        Integer[] products = new Integer[from == n ? n : n - 1];
+        for (int to = 0, i = 0; to < n; to++) {
+            if (to != from) products[i++] = to;
+        }
+        Arrays.sort(products, (a, b) -> Integer.compare(distance(from, a), distance(from, b)));
+        k = Math.min(k, products.length);
+        int[] list = new int[k];
+        for (int i = 0; i < k; i++) list[i] = products[i];
+        return list;
+    }
+
+    /**
+     * Distance between two nodes.
+     * @param from The node walked from, n for the start point.
+     * @param to The product walked to.
+     * @return int The distance.
+     */
+    private int distance(int from, int to) {
+        return from == n ? pd.fromStart(to) : pd.between(from, to);
+    }
+
+    /**
+     * Length of the best order found by the last run.
+     * @return long The length.
+     */
+    public long getBestLength() {
+        return bestLength;
+    }
+
+    /**
+     * Driver for the colony on the persisted product distances.
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        int ants = 25;
+        int iterations = 500;
+        TSPData tspData = TSPData.readFromFile("./tmp/productMatrixDist");
+        AntColonySystem acs = new AntColonySystem(ants, iterations);
+        long startTime = System.currentTimeMillis();
+        int[] solution = acs.solve(new ProductDistances(tspData), new Random().nextLong(), null);
+        System.out.println("Time taken: " + ((System.currentTimeMillis() - startTime) / 1000.0) + " Seconds");
+        System.out.println("Total length: " + acs.getBestLength());
+        tspData.writeActionFile(solution, "./data/TSP solution.txt");
+    }
+}
@@ -0,0 +1,228 @@
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Solves many pick lists against one TSPData, which is loaded once. Every pick list is a subset of the products
+ * and is solved on a view of the shared distance matrix, on a pool with a fixed number of threads. The action
+ * file of an order is written as soon as it is solved.
+ */
+public class BatchOrderPicker {
+    private final TSPData tsp;
+    private final ProductDistances distances;
+    private final int threads;
+    private final ThreadLocal<TourSolver> solvers;
+    private final ThreadLocal<RouteFileWriter> writers = ThreadLocal.withInitial(RouteFileWriter::new);
+
+    /**
+     * Statistics of a batch.
+     */
+    public static class Report {
+        private final int orders;
+        private final long totalLength;
+        private final long durationNanos;
+
+        Report(int orders, long totalLength, long durationNanos) {
+            this.orders = orders;
+            this.totalLength = totalLength;
+            this.durationNanos = durationNanos;
+        }
+
+        public int getOrders() {
+            return orders;
+        }
+
+        public long getTotalLength() {
+            return totalLength;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        /**
+         * Throughput of the batch.
+         * @return double Solved orders per second.
+         */
+        public double getOrdersPerSecond() {
+            return orders / Math.max(durationNanos / 1e9, 1e-9);
+        }
+
+        public String toString() {
+            return String.format(Locale.ROOT, "%d orders in %.3fs, %.1f orders/s, total length %d",
+                    orders, durationNanos / 1e9, getOrdersPerSecond(), totalLength);
+        }
+    }
+
+    /**
+     * Constructor of the engine.
+     * @param tsp The distance data of the warehouse.
+     * @param threads Number of orders solved at the same time.
+     * @param solvers Creates a solver; every thread of the pool creates one and reuses it for all its orders.
+     */
+    public BatchOrderPicker(TSPData tsp, int threads, Supplier<TourSolver> solvers) {
+        this.tsp = tsp;
+        this.distances = new ProductDistances(tsp);
+        this.threads = threads;
+        this.solvers = ThreadLocal.withInitial(solvers);
+    }
+
+    /**
+     * Solve a stream of pick lists and write an action file per order. The stream is consumed only as fast as
+     * the pool solves the orders, so a stream of any length is handled in bounded memory.
+     * @param orders The pick lists, each holding product indices of the TSPData.
+     * @param outputDirectory Directory receiving "order &lt;n&gt;.txt" for the n-th order, starting at 1.
+     * @param seed The seed of the first order, order n uses seed + n - 1.
+     * @return Report The statistics of the batch.
+     */
+    public Report solve(Stream<int[]> orders, String outputDirectory, long seed) {
+        new File(outputDirectory).mkdirs();
+        // a full queue makes the submitting thread solve the order itself, which pauses reading the stream
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(2 * threads), new ThreadPoolExecutor.CallerRunsPolicy());
+        AtomicInteger solved = new AtomicInteger();
+        AtomicLong totalLength = new AtomicLong();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        long startTime = System.nanoTime();
+        try {
+            Iterator<int[]> iterator = orders.iterator();
+            for (int number = 1; iterator.hasNext() && failure.get() == null; number++) {
+                final int[] order = iterator.next();
+                final int orderNumber = number;
+                executor.execute(() -> {
+                    try {
+                        String filePath = outputDirectory + "/order " + orderNumber + ".txt";
+                        totalLength.addAndGet(solveOrder(order, seed + orderNumber - 1, filePath));
+                        solved.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure.get() != null) throw failure.get();
+        return new Report(solved.get(), totalLength.get(), System.nanoTime() - startTime);
+    }
+
+    /**
+     * Solve a single pick list on the calling thread and write its action file.
+     * @param order Product indices of the TSPData, at least one.
+     * @param seed The seed of the solver.
+     * @param filePath Path to the action file.
+     * @return long The length of the order, including one step per product taken.
+     */
+    public long solveOrder(int[] order, long seed, String filePath) {
+        int[] products = solve(order, seed);
+        try {
+            tsp.writeActionFile(products, filePath, writers.get());
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+        return length(products);
+    }
+
+    /**
+     * Solve a single pick list on the calling thread.
+     * @param order Product indices of the TSPData, at least one.
+     * @param seed The seed of the solver.
+     * @return int[] The products of the pick list in picking order, as product indices of the TSPData.
+     */
+    public int[] solve(int[] order, long seed) {
+        if (order.length == 0) throw new IllegalArgumentException("A pick list needs at least one product");
+        ProductDistances view = distances.subset(order);
+        int[] solution = solvers.get().solve(view, seed, null);
+        int[] products = new int[solution.length];
+        for (int i = 0; i < solution.length; i++) {
+            products[i] = view.product(solution[i]);
+        }
+        return products;
+    }
+
+    /**
+     * Length of a picking order as written in the action file.
+     * @param products Product indices of the TSPData in picking order.
+     * @return long The length, including one step per product taken.
+     */
+    public long length(int[] products) {
+        return distances.length(products) + products.length;
+    }
+
+    /**
+     * Number of products of the warehouse.
+     * @return int The number of products.
+     */
+    public int productCount() {
+        return distances.size();
+    }
+
+    /**
+     * Read pick lists, one per line holding product numbers as in the action files (starting at 1), separated
+     * by anything that is not a digit. Lines without a product number are skipped.
+     * @param filePath Path to the pick list file.
+     * @return Stream of pick lists with product indices starting at 0, to be closed after use.
+     */
+    public static Stream<int[]> readOrders(String filePath) throws IOException {
+        return Files.lines(Paths.get(filePath))
+                .map(String::trim)
+                .filter(line -> !line.isEmpty())
+                .map(line -> Arrays.stream(line.split("\\D+")).filter(s -> !s.isEmpty())
+                        .mapToInt(s -> Integer.parseInt(s) - 1).toArray())
+                .filter(order -> order.length > 0);
+    }
+
+    /**
+     * Random pick lists for trying out the engine.
+     * @param products Number of products of the warehouse.
+     * @param orders Number of pick lists.
+     * @param minSize Smallest number of products of a pick list.
+     * @param maxSize Largest number of products of a pick list.
+     * @param seed The seed.
+     * @return Stream of pick lists.
+     */
+    public static Stream<int[]> randomOrders(int products, int orders, int minSize, int maxSize, long seed) {
+        Random random = new Random(seed);
+        return Stream.generate(() -> random.ints(0, products).distinct()
+                .limit(Math.min(products, minSize + random.nextInt(maxSize - minSize + 1))).toArray()).limit(orders);
+    }
+
+    /**
+     * Driver solving a batch of pick lists.
+     * Usage: BatchOrderPicker [persist file] [pick list file, or "random"] [output directory] [threads]
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        String persistFile = args.length > 0 ? args[0] : "./tmp/productMatrixDist";
+        String orderFile = args.length > 1 ? args[1] : "random";
+        String outputDirectory = args.length > 2 ? args[2] : "./tmp/orders";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        TSPData tspData = TSPData.readFromFile(persistFile);
+        BatchOrderPicker picker = new BatchOrderPicker(tspData, threads, () -> new GeneticAlgorithm(100, 100, 0.7d, 0.01d));
+        try (Stream<int[]> orders = orderFile.equals("random")
+                ? randomOrders(tspData.getStartDistances().length, 1000, 3, 15, 42) : readOrders(orderFile)) {
+            System.out.println("[Batch] " + picker.solve(orders, outputDirectory, 0));
+        }
+    }
+}
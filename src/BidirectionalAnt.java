@@ -0,0 +1,265 @@
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Ant that walks from both ends of a path specification at once: a forward half from the start and a backward
+ * half from the end take turns. Both halves choose by the same pheromone and keep their tiles in one set of
+ * visit stamps, so the ant knows when a half steps onto the current path of the other half. The route is then
+ * the forward path up to that tile followed by the inverted backward path. Each half walks a random path of
+ * roughly half the length, which explores a much smaller area than one walk over the whole distance.
+ */
+public class BidirectionalAnt {
+    private static final int FORWARD_PATH = 0;
+    private static final int FORWARD_DEAD = 1;
+    private static final int BACKWARD_PATH = 2;
+    private static final int BACKWARD_DEAD = 3;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final Maze maze;
+    private final Random random;
+    private final VisitStamps stamps;
+    private final Half forward;
+    private final Half backward;
+    private Route route;
+    private int backtracks;
+    private int moves;
+
+    /**
+     * One end of the walk, a depth-first path with backtracking like {@link Ant}.
+     */
+    private class Half {
+        final Coordinate origin;
+        final int pathState;
+        final int deadState;
+        final int otherPathState;
+        final List<Direction> path = new ArrayList<>();
+        Coordinate position;
+        boolean stuck;
+
+        Half(Coordinate origin, int pathState, int deadState, int otherPathState) {
+            this.origin = origin;
+            this.position = origin;
+            this.pathState = pathState;
+            this.deadState = deadState;
+            this.otherPathState = otherPathState;
+        }
+
+        /**
+         * Take one step, backtracking out of a dead end first if needed.
+         * @return boolean Whether the step reached the path of the other half.
+         */
+        boolean move() {
+            Direction[] competing = new Direction[DIRECTIONS.length];
+            int count = competingDirections(competing);
+            while (count == 0) {
+                if (path.isEmpty()) {
+                    // everything around this end is explored, the other half finishes the walk
+                    stuck = true;
+                    return false;
+                }
+                stamps.set(maze.getCellIndex(position), deadState);
+                position = position.subtract(path.remove(path.size() - 1));
+                backtracks++;
+                count = competingDirections(competing);
+            }
+
+            Direction chosen = competing[count - 1];
+            SurroundingPheromone surroundingPheromone = maze.getSurroundingPheromone(position);
+            double total = 0.0d;
+            for (int i = 0; i < count; i++) {
+                total += surroundingPheromone.get(competing[i]);
+            }
+            if (total > 0) {
+                double wheel = random.nextDouble() * total;
+                for (int i = 0; i < count; i++) {
+                    wheel -= surroundingPheromone.get(competing[i]);
+                    if (wheel <= 0) {
+                        chosen = competing[i];
+                        break;
+                    }
+                }
+            } else {
+                chosen = competing[random.nextInt(count)];
+            }
+
+            path.add(chosen);
+            position = position.add(chosen);
+            moves++;
+            int cell = maze.getCellIndex(position);
+            if (stamps.get(cell) == otherPathState) return true;
+            stamps.set(cell, pathState);
+            return false;
+        }
+
+        /**
+         * Directions to open tiles this half has not visited.
+         * @param competing Receives the directions.
+         * @return int The number of directions.
+         */
+        private int competingDirections(Direction[] competing) {
+            int count = 0;
+            for (Direction direction : DIRECTIONS) {
+                Coordinate next = position.add(direction);
+                if (!maze.isPassable(next)) continue;
+                int state = stamps.get(maze.getCellIndex(next));
+                if (state != pathState && state != deadState) competing[count++] = direction;
+            }
+            return count;
+        }
+
+        /**
+         * Number of steps of the path from the origin to a tile on it.
+         * @param target A tile on the path.
+         * @return int The number of steps.
+         */
+        int stepsTo(Coordinate target) {
+            Coordinate current = origin;
+            int steps = 0;
+            while (!current.equals(target)) {
+                current = current.add(path.get(steps++));
+            }
+            return steps;
+        }
+    }
+
+    /**
+     * Constructor for an ant with its own visit stamps.
+     * @param maze Maze the ant will be running in.
+     * @param spec The path specification consisting of a start coordinate and an end coordinate.
+     * @param random The randomizer.
+     */
+    public BidirectionalAnt(Maze maze, PathSpecification spec, Random random) {
+        this(maze, spec, random, new VisitStamps(maze.getCellCount()));
+    }
+
+    /**
+     * Constructor for an ant reusing visit stamps, which starts a new walk on them.
+     * @param maze Maze the ant will be running in.
+     * @param spec The path specification consisting of a start coordinate and an end coordinate.
+     * @param random The randomizer.
+     * @param stamps Visit stamps with one slot per slot of the maze, not used by another ant at the same time.
+     * @throws IllegalArgumentException If the start or the end is not an open tile of the maze.
+     */
+    public BidirectionalAnt(Maze maze, PathSpecification spec, Random random, VisitStamps stamps) {
+        Ant.checkSpecification(maze, spec);
+        this.maze = maze;
+        this.random = random;
+        this.stamps = stamps;
+        this.forward = new Half(spec.getStart(), FORWARD_PATH, FORWARD_DEAD, BACKWARD_PATH);
+        this.backward = new Half(spec.getEnd(), BACKWARD_PATH, BACKWARD_DEAD, FORWARD_PATH);
+        stamps.next();
+        stamps.set(maze.getCellIndex(spec.getStart()), FORWARD_PATH);
+        stamps.set(maze.getCellIndex(spec.getEnd()), BACKWARD_PATH);
+    }
+
+    /**
+     * Let both halves walk in turns until they meet.
+     * @return The route the ant found from start to end, visiting every tile at most once.
+     * @throws IllegalArgumentException If the end cannot be reached from the start.
+     */
+    public Route findRoute() {
+        return findRoute(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Let both halves walk in turns until they meet, giving up once their paths together grow beyond a length.
+     * @param maxSize The longest combined path the halves may hold while walking.
+     * @return The route the ant found from start to end, null if the ant gave up.
+     * @throws IllegalArgumentException If the end cannot be reached from the start.
+     */
+    public Route findRoute(int maxSize) {
+        if (route != null) return route;
+        if (forward.origin.equals(backward.origin)) {
+            route = new Route(forward.origin);
+            return route;
+        }
+        while (true) {
+            if (forward.stuck && backward.stuck) {
+                // both ends explored everything they can reach without meeting
+                throw new IllegalArgumentException("End " + backward.origin + " cannot be reached from start " + forward.origin);
+            }
+            if (!forward.stuck && forward.move()) {
+                route = splice(forward.path, forward.path.size(), backward.path, backward.stepsTo(forward.position));
+                return route;
+            }
+            if (!backward.stuck && backward.move()) {
+                route = splice(forward.path, forward.stepsTo(backward.position), backward.path, backward.path.size());
+                return route;
+            }
+            if (forward.path.size() + backward.path.size() > maxSize) return null;
+        }
+    }
+
+    /**
+     * Join the forward path with the inverted backward path, both ending on the meeting tile.
+     */
+    private Route splice(List<Direction> forwardPath, int forwardSteps, List<Direction> backwardPath, int backwardSteps) {
+        Route spliced = new Route(forward.origin);
+        for (int i = 0; i < forwardSteps; i++) {
+            spliced.add(forwardPath.get(i));
+        }
+        for (int i = backwardSteps - 1; i >= 0; i--) {
+            spliced.add(Direction.inverse(backwardPath.get(i)));
+        }
+        return spliced;
+    }
+
+    /**
+     * Number of steps both halves walked back out of dead ends.
+     * @return int The number of backtrack steps.
+     */
+    public int getBacktracks() {
+        return backtracks;
+    }
+
+    /**
+     * Number of steps both halves took, forward and back.
+     * @return int The number of steps.
+     */
+    public int getSteps() {
+        return moves + backtracks;
+    }
+
+    /**
+     * Driver comparing the steps per completed route of forward ants and bidirectional ants on untouched
+     * pheromone.
+     */
+    public static void main(String[] args) throws FileNotFoundException {
+        String mazeName = args.length > 0 ? args[0] : "hard";
+        int ants = 200;
+        Maze maze = Maze.createMaze("./data/"+mazeName+" maze.txt", 1000);
+        PathSpecification spec = PathSpecification.readCoordinates("./data/"+mazeName+" coordinates.txt");
+        Random random = new Random(0);
+
+        long forwardSteps = 0;
+        long forwardSize = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < ants; i++) {
+            Ant ant = new Ant(maze, spec, random);
+            Route route = ant.findRoute();
+            // every backtrack step undoes one move of the ant
+            forwardSteps += route.size() + 2L * ant.getBacktracks();
+            forwardSize += route.size();
+        }
+        long forwardNanos = System.nanoTime() - startTime;
+
+        VisitStamps stamps = new VisitStamps(maze.getCellCount());
+        long bidirectionalSteps = 0;
+        long bidirectionalSize = 0;
+        startTime = System.nanoTime();
+        for (int i = 0; i < ants; i++) {
+            BidirectionalAnt ant = new BidirectionalAnt(maze, spec, random, stamps);
+            bidirectionalSize += ant.findRoute().size();
+            bidirectionalSteps += ant.getSteps();
+        }
+        long bidirectionalNanos = System.nanoTime() - startTime;
+
+        System.out.println(String.format(Locale.ROOT, "Forward:       %10.1f steps/route, route size %8.1f, %7.3f ms/route",
+                forwardSteps / (double) ants, forwardSize / (double) ants, forwardNanos / 1e6 / ants));
+        System.out.println(String.format(Locale.ROOT, "Bidirectional: %10.1f steps/route, route size %8.1f, %7.3f ms/route",
+                bidirectionalSteps / (double) ants, bidirectionalSize / (double) ants, bidirectionalNanos / 1e6 / ants));
+    }
+}
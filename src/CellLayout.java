@@ -0,0 +1,37 @@
+/**
+ * Maps the cells of a maze to the slots of its pheromone grid and of the visited flags of the ants.
+ */
+public interface CellLayout {
+
+    /**
+     * Number of slots.
+     * @return int The number of slots.
+     */
+    int size();
+
+    /**
+     * Slot of a cell inside the maze.
+     * @param x The horizontal position.
+     * @param y The vertical position.
+     * @return int The slot, or -1 if the layout has no slot for the cell.
+     */
+    int index(int x, int y);
+
+    /**
+     * Slot of the neighbour of a cell inside the maze.
+     * @param index The slot of the cell.
+     * @param x The horizontal position of the cell.
+     * @param y The vertical position of the cell.
+     * @param direction The direction of the neighbour.
+     * @param width width of Maze (horizontal)
+     * @param length length of Maze (vertical)
+     * @return int The slot of the neighbour, or -1 if it is outside the maze or has no slot.
+     */
+    default int neighbour(int index, int x, int y, Direction direction, int width, int length) {
+        Coordinate delta = Direction.dirToCoordinateDelta(direction);
+        int nx = x + delta.getX();
+        int ny = y + delta.getY();
+        if (nx < 0 || ny < 0 || nx >= width || ny >= length) return -1;
+        return index(nx, ny);
+    }
+}
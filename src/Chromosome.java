@@ -12,12 +12,12 @@ public class Chromosome {
 		
 		/**
 	     * Knuth-Yates shuffle, reordering a array randomly
-	     * @param chromosome array to shuffle.
+	     * @param rand The randomizer.
 	     */
-	    public void shuffle() {
+	    public void shuffle(Random rand) {
 	        int n = chromosome.length;
 	        for (int i = 0; i < n; i++) {
-	            int r = i + (int) (Math.random() * (n - i));
+	            int r = i + rand.nextInt(n - i);
 	            int swap = chromosome[r];
 	            chromosome[r] = chromosome[i];
 	            chromosome[i] = swap;
@@ -0,0 +1,274 @@
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Pre-compiled binary maze, memory-mapped so a maze is available without parsing. The file holds, big-endian:
+ *      int magic "MAZE", int version, int width, int length, int flags
+ *      long[] open cells as bits, cell y * width + x at bit (cell % 64) of word cell / 64
+ *      byte[] neighbour masks, 4 bits per cell (low nibble for even cells), bit Direction.ordinal() set when
+ *             the neighbour in that direction is open
+ *      if flag INDICES is set:
+ *          int junction count, int[] junction cells (open cells with 3 or 4 open neighbours)
+ *          int 3 * corridor count, int[] (from, to, length) per corridor
+ * A corridor is a chain of cells with exactly two open neighbours between two cells that have not; loops
+ * without such cells are not indexed.
+ */
+public class CompiledMaze {
+    private static final int MAGIC = 0x4D415A45;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+    public static final int INDICES = 1;
+
+    private final MappedByteBuffer buffer;
+    private final int width;
+    private final int length;
+    private final int flags;
+    private final int masksOffset;
+    private final int indicesOffset;
+
+    private CompiledMaze(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC) throw new IllegalArgumentException("Not a compiled maze");
+        if (buffer.getInt(4) != VERSION) throw new IllegalArgumentException("Unsupported compiled maze version " + buffer.getInt(4));
+        this.width = buffer.getInt(8);
+        this.length = buffer.getInt(12);
+        this.flags = buffer.getInt(16);
+        long cells = (long) width * length;
+        this.masksOffset = (int) (HEADER_BYTES + wallWords(cells) * 8);
+        this.indicesOffset = (int) (masksOffset + (cells + 1) / 2);
+    }
+
+    /**
+     * Memory-map a compiled maze file.
+     * @param filePath Path to the compiled maze.
+     * @return CompiledMaze The mapped maze.
+     */
+    public static CompiledMaze open(String filePath) throws IOException {
+        try (FileInputStream input = new FileInputStream(filePath)) {
+            FileChannel channel = input.getChannel();
+            return new CompiledMaze(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Check whether a cell is open.
+     * @param x The horizontal position.
+     * @param y The vertical position.
+     * @return boolean Whether the cell is accessible.
+     */
+    public boolean isOpen(int x, int y) {
+        int cell = y * width + x;
+        return (buffer.getLong(HEADER_BYTES + (cell >>> 6) * 8) >>> (cell & 63) & 1) != 0;
+    }
+
+    /**
+     * Open neighbours of a cell.
+     * @param x The horizontal position.
+     * @param y The vertical position.
+     * @return int Mask with bit Direction.ordinal() set for every open neighbour.
+     */
+    public int getNeighbourMask(int x, int y) {
+        int cell = y * width + x;
+        return buffer.get(masksOffset + (cell >>> 1)) >>> ((cell & 1) * 4) & 0xF;
+    }
+
+    /**
+     * Whether the file contains the junction and corridor indices.
+     * @return boolean Whether the indices are present.
+     */
+    public boolean hasIndices() {
+        return (flags & INDICES) != 0;
+    }
+
+    /**
+     * Cells with three or four open neighbours.
+     * @return int[] The junction cells, y * width + x.
+     */
+    public int[] getJunctions() {
+        if (!hasIndices()) throw new IllegalStateException("Maze was compiled without indices");
+        return readInts(indicesOffset);
+    }
+
+    /**
+     * Corridors between cells that do not have exactly two open neighbours.
+     * @return int[] Triples of from cell, to cell and the number of steps between them.
+     */
+    public int[] getCorridors() {
+        if (!hasIndices()) throw new IllegalStateException("Maze was compiled without indices");
+        return readInts(indicesOffset + 4 + buffer.getInt(indicesOffset) * 4);
+    }
+
+    private int[] readInts(int offset) {
+        int[] values = new int[buffer.getInt(offset)];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset + 4);
+        view.asIntBuffer().get(values);
+        return values;
+    }
+
+    /**
+     * The walls as bits, read directly from the mapped file.
+     * @return WallBits The walls.
+     */
+    public WallBits getWalls() {
+        ByteBuffer view = buffer.duplicate();
+        view.position(HEADER_BYTES);
+        return new WallBits(view.slice().asLongBuffer(), width, length);
+    }
+
+    /**
+     * Create a Maze on the mapped walls with pheromones on the heap.
+     * @param initialPheromoneValue The initial pheromone of the open cells.
+     * @return Maze The maze.
+     */
+    public Maze toMaze(double initialPheromoneValue) {
+        return toMaze(HeapPheromoneGrid::new, initialPheromoneValue);
+    }
+
+    /**
+     * Create a Maze on the mapped walls.
+     * @param storage Creates the pheromone grid for a number of cells.
+     * @param initialPheromoneValue The initial pheromone of the open cells.
+     * @return Maze The maze.
+     */
+    public Maze toMaze(IntFunction<PheromoneGrid> storage, double initialPheromoneValue) {
+        return new Maze(getWalls(), storage, initialPheromoneValue);
+    }
+
+    /**
+     * Convert a maze text file to the compiled format.
+     * @param textFile Path to the maze text file.
+     * @param compiledFile Path to write the compiled maze to.
+     * @param indices Whether to include the junction and corridor indices.
+     */
+    public static void compile(String textFile, String compiledFile, boolean indices) throws IOException {
+        TextParser parser = new TextParser(textFile, "");
+        int width = parser.nextInt();
+        int length = parser.nextInt();
+        byte[] walls = new byte[width * length];
+        for (int i = 0; i < walls.length; i++) {
+            walls[i] = (byte) parser.nextInt();
+        }
+
+        byte[] masks = new byte[walls.length];
+        for (int y = 0; y < length; y++) {
+            for (int x = 0; x < width; x++) {
+                int cell = y * width + x;
+                if (walls[cell] != 1) continue;
+                if (y > 0 && walls[cell - width] == 1) masks[cell] |= 1 << Direction.North.ordinal();
+                if (x < width - 1 && walls[cell + 1] == 1) masks[cell] |= 1 << Direction.East.ordinal();
+                if (x > 0 && walls[cell - 1] == 1) masks[cell] |= 1 << Direction.West.ordinal();
+                if (y < length - 1 && walls[cell + width] == 1) masks[cell] |= 1 << Direction.South.ordinal();
+            }
+        }
+
+        List<Integer> junctions = new ArrayList<>();
+        List<int[]> corridors = new ArrayList<>();
+        if (indices) buildIndices(walls, masks, width, junctions, corridors);
+
+        long size = HEADER_BYTES + wallWords(walls.length) * 8 + (walls.length + 1) / 2
+                + (indices ? 8 + junctions.size() * 4L + corridors.size() * 12L : 0);
+        if (size > Integer.MAX_VALUE) throw new IllegalArgumentException("Maze too large to compile");
+        ByteBuffer out = ByteBuffer.allocate((int) size);
+        out.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(length).putInt(indices ? INDICES : 0);
+        for (int word = 0; word < wallWords(walls.length); word++) {
+            long bits = 0;
+            for (int bit = 0, cell = word * 64; bit < 64 && cell < walls.length; bit++, cell++) {
+                if (walls[cell] == 1) bits |= 1L << bit;
+            }
+            out.putLong(bits);
+        }
+        for (int cell = 0; cell < walls.length; cell += 2) {
+            out.put((byte) (masks[cell] | (cell + 1 < walls.length ? masks[cell + 1] << 4 : 0)));
+        }
+        if (indices) {
+            out.putInt(junctions.size());
+            for (int junction : junctions) out.putInt(junction);
+            out.putInt(corridors.size() * 3);
+            for (int[] corridor : corridors) out.putInt(corridor[0]).putInt(corridor[1]).putInt(corridor[2]);
+        }
+        out.flip();
+        try (FileOutputStream output = new FileOutputStream(compiledFile)) {
+            FileChannel channel = output.getChannel();
+            while (out.hasRemaining()) channel.write(out);
+        }
+    }
+
+    /**
+     * Find the junctions and walk every corridor once, starting from the cells that do not have exactly two
+     * open neighbours.
+     */
+    private static void buildIndices(byte[] walls, byte[] masks, int width, List<Integer> junctions, List<int[]> corridors) {
+        Direction[] directions = Direction.values();
+        int[] steps = new int[directions.length];
+        for (Direction direction : directions) {
+            Coordinate delta = Direction.dirToCoordinateDelta(direction);
+            steps[direction.ordinal()] = delta.getY() * width + delta.getX();
+        }
+        for (int cell = 0; cell < walls.length; cell++) {
+            int degree = Integer.bitCount(masks[cell]);
+            if (walls[cell] != 1 || degree == 2) continue;
+            if (degree >= 3) junctions.add(cell);
+            for (Direction first : directions) {
+                if ((masks[cell] & 1 << first.ordinal()) == 0) continue;
+                int current = cell + steps[first.ordinal()];
+                Direction arrival = first;
+                int walked = 1;
+                while (Integer.bitCount(masks[current]) == 2) {
+                    int back = Direction.inverse(arrival).ordinal();
+                    int next = Integer.numberOfTrailingZeros(masks[current] & ~(1 << back));
+                    arrival = directions[next];
+                    current += steps[next];
+                    walked++;
+                }
+                // every corridor is walked from both ends, keep one of the two walks
+                int returning = Direction.inverse(arrival).ordinal();
+                if (cell < current || (cell == current && first.ordinal() < returning)) {
+                    corridors.add(new int[]{cell, current, walked});
+                }
+            }
+        }
+    }
+
+    private static long wallWords(long cells) {
+        return (cells + 63) / 64;
+    }
+
+    /**
+     * Compile a maze, load it back and check that it is the same maze.
+     * Usage: CompiledMaze [maze text file] [compiled file]
+     */
+    public static void main(String[] args) throws IOException {
+        String textFile = args.length > 0 ? args[0] : "./data/insane maze.txt";
+        String compiledFile = args.length > 1 ? args[1] : "./tmp/insane maze.bin";
+        long startTime = System.nanoTime();
+        compile(textFile, compiledFile, true);
+        System.out.println("Compiled in " + ((System.nanoTime() - startTime) / 1e6) + "ms");
+
+        startTime = System.nanoTime();
+        Maze text = Maze.createMaze(textFile, 1000);
+        System.out.println("Text load: " + ((System.nanoTime() - startTime) / 1e6) + "ms");
+        startTime = System.nanoTime();
+        CompiledMaze compiled = open(compiledFile);
+        Maze loaded = compiled.toMaze(1000);
+        System.out.println("Compiled load: " + ((System.nanoTime() - startTime) / 1e6) + "ms");
+        System.out.println("Junctions: " + compiled.getJunctions().length + ", corridors: " + compiled.getCorridors().length / 3);
+        System.out.println("Round trip equal: " + text.toString().equals(loaded.toString()));
+    }
+}
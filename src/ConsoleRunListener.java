@@ -0,0 +1,17 @@
+import java.util.Locale;
+
+/**
+ * Prints one line per generation to standard out, for the drivers.
+ */
+public class ConsoleRunListener implements RunListener {
+
+    @Override
+    public void generationCompleted(GenerationStats stats) {
+        System.out.println(String.format(Locale.ROOT,
+                "[%s] Generation: %d\tTime taken: %.3fs\t%.0f/s\tAverage: %.1f\tShortest: %d\t\tTotal Shortest: %d",
+                stats.getSolver(), stats.getGeneration(), stats.getDurationNanos() / 1e9, stats.getIndividualsPerSecond(),
+                stats.getAverageLength(), stats.getGenerationBestLength(), stats.getBestLength())
+                + (stats.getAbandoned() > 0 ? "\tAbandoned: " + stats.getAbandoned() + " (" + stats.getStepsSaved() + " steps saved)" : "")
+                + (stats.getDuplicates() > 0 ? String.format(Locale.ROOT, "\tDuplicates: %.0f%%", 100 * stats.getDuplicateRate()) : ""));
+    }
+}
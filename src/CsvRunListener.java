@@ -0,0 +1,37 @@
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Writes the statistics of every generation as a line of CSV. The file is complete after close().
+ */
+public class CsvRunListener implements RunListener, Closeable {
+    private final PrintWriter writer;
+
+    /**
+     * Constructor of the exporter, writes the header.
+     * @param filePath Path of the CSV file.
+     * @throws FileNotFoundException If the file cannot be created.
+     */
+    public CsvRunListener(String filePath) throws FileNotFoundException {
+        writer = new PrintWriter(filePath);
+        writer.println("solver,generation,individuals,best_length,generation_best_length,average_length,duration_ms," +
+                "individuals_per_s,backtracks,evaporation_ms,p50_upper,p90_upper,abandoned,steps_saved,duplicate_rate");
+    }
+
+    @Override
+    public synchronized void generationCompleted(GenerationStats stats) {
+        writer.println(String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%.3f,%.3f,%.1f,%d,%.3f,%d,%d,%d,%d,%.3f",
+                stats.getSolver(), stats.getGeneration(), stats.getIndividuals(), stats.getBestLength(),
+                stats.getGenerationBestLength(), stats.getAverageLength(), stats.getDurationNanos() / 1e6,
+                stats.getIndividualsPerSecond(), stats.getBacktracks(), stats.getEvaporationNanos() / 1e6,
+                stats.getLengths().percentileUpperBound(50), stats.getLengths().percentileUpperBound(90),
+                stats.getAbandoned(), stats.getStepsSaved(), stats.getDuplicateRate()));
+    }
+
+    @Override
+    public synchronized void close() {
+        writer.close();
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Pheromones as unsigned 16 or 32 bit integers with one shared scale: a cell holds units * scale. Evaporation
+ * only multiplies the scale, so it no longer sweeps the grid. When a deposit does not fit, all cells are halved
+ * as often as needed and the scale doubled accordingly. Halving rounds up, so a cell with pheromone never drops
+ * to zero; this floor of one unit keeps every open tile selectable for the ants.
+ */
+public class FixedPointPheromoneGrid implements PheromoneGrid {
+    private final char[] narrow;
+    private final int[] wide;
+    private final long maxUnits;
+    private final int cells;
+    private double scale;
+
+    /**
+     * Constructor of an empty grid.
+     * @param cells Number of cells.
+     * @param bits Bits per cell, 16 or 32.
+     */
+    public FixedPointPheromoneGrid(int cells, int bits) {
+        if (bits != 16 && bits != 32) throw new IllegalArgumentException("Fixed point grids have 16 or 32 bits, not " + bits);
+        this.cells = cells;
+        this.narrow = bits == 16 ? new char[cells] : null;
+        this.wide = bits == 32 ? new int[cells] : null;
+        this.maxUnits = (1L << bits) - 1;
+    }
+
+    @Override
+    public int size() {
+        return cells;
+    }
+
+    private long units(int cell) {
+        return narrow != null ? narrow[cell] : wide[cell] & 0xFFFFFFFFL;
+    }
+
+    private void store(int cell, long units) {
+        if (narrow != null) narrow[cell] = (char) units;
+        else wide[cell] = (int) units;
+    }
+
+    /**
+     * Convert a value to units, picking the scale on first use so the value takes a quarter of the range.
+     */
+    private long toUnits(double value) {
+        if (value <= 0) return 0;
+        if (scale == 0) scale = value / (maxUnits >> 2);
+        return Math.max(1, Math.round(value / scale));
+    }
+
+    @Override
+    public double get(int cell) {
+        return units(cell) * scale;
+    }
+
+    @Override
+    public void set(int cell, double value) {
+        long units = toUnits(value);
+        if (units > maxUnits) units = renormalise(units);
+        store(cell, units);
+    }
+
+    @Override
+    public void add(int cell, double amount) {
+        long units = units(cell) + toUnits(amount);
+        if (units > maxUnits) units = renormalise(units);
+        store(cell, units);
+    }
+
+    /**
+     * Halve all cells until the given number of units fits.
+     * @param units The units that do not fit.
+     * @return long The units after halving.
+     */
+    private long renormalise(long units) {
+        int shift = 0;
+        while ((units >>> shift) > maxUnits) shift++;
+        long round = (1L << shift) - 1;
+        for (int cell = 0; cell < cells; cell++) {
+            long value = units(cell);
+            if (value != 0) store(cell, (value + round) >>> shift);
+        }
+        scale *= 1L << shift;
+        return (units + round) >>> shift;
+    }
+
+    @Override
+    public void scale(double factor) {
+        scale *= factor;
+    }
+}
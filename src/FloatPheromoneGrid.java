@@ -0,0 +1,43 @@
+/**
+ * Pheromones as a float array on the heap, half the memory traffic of HeapPheromoneGrid. The values only feed
+ * the roulette wheel of the ants, for which float precision is plenty.
+ */
+public class FloatPheromoneGrid implements PheromoneGrid {
+    private final float[] pheromones;
+
+    /**
+     * Constructor of an empty grid.
+     * @param cells Number of cells.
+     */
+    public FloatPheromoneGrid(int cells) {
+        this.pheromones = new float[cells];
+    }
+
+    @Override
+    public int size() {
+        return pheromones.length;
+    }
+
+    @Override
+    public double get(int cell) {
+        return pheromones[cell];
+    }
+
+    @Override
+    public void set(int cell, double value) {
+        pheromones[cell] = (float) value;
+    }
+
+    @Override
+    public void add(int cell, double amount) {
+        pheromones[cell] += (float) amount;
+    }
+
+    @Override
+    public void scale(double factor) {
+        float f = (float) factor;
+        for (int i = 0; i < pheromones.length; i++) {
+            pheromones[i] *= f;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Statistics of a single generation of a solver run. Lengths are route sizes for the maze solvers and tour
+ * lengths for the TSP solvers; counters that do not apply to a solver are 0.
+ */
+public class GenerationStats {
+    private final String solver;
+    private final int generation;
+    private final int individuals;
+    private final long bestLength;
+    private final long generationBestLength;
+    private final double averageLength;
+    private final long durationNanos;
+    private final long backtracks;
+    private final long evaporationNanos;
+    private final LengthHistogram lengths;
+    private final int abandoned;
+    private final long stepsSaved;
+    private final int duplicates;
+
+    /**
+     * Constructor of the statistics.
+     * @param solver Name of the solver.
+     * @param generation The generation, starting at 1.
+     * @param individuals Number of ants or chromosomes in the generation.
+     * @param bestLength Best length of the run so far.
+     * @param generationBestLength Best length within this generation.
+     * @param averageLength Average length within this generation.
+     * @param durationNanos Wall time of the generation.
+     * @param backtracks Number of backtrack steps of all ants.
+     * @param evaporationNanos Time spent evaporating pheromone.
+     * @param lengths Histogram of the lengths of this generation.
+     */
+    public GenerationStats(String solver, int generation, int individuals, long bestLength, long generationBestLength,
+                           double averageLength, long durationNanos, long backtracks, long evaporationNanos,
+                           LengthHistogram lengths) {
+        this(solver, generation, individuals, bestLength, generationBestLength, averageLength, durationNanos, backtracks,
+                evaporationNanos, lengths, 0, 0, 0);
+    }
+
+    /**
+     * Constructor of the statistics of an ant colony generation.
+     * @param solver Name of the solver.
+     * @param generation The generation, starting at 1.
+     * @param individuals Number of ants or chromosomes in the generation that completed.
+     * @param bestLength Best length of the run so far.
+     * @param generationBestLength Best length within this generation.
+     * @param averageLength Average length within this generation.
+     * @param durationNanos Wall time of the generation.
+     * @param backtracks Number of backtrack steps of all ants.
+     * @param evaporationNanos Time spent evaporating pheromone.
+     * @param lengths Histogram of the lengths of this generation.
+     * @param abandoned Number of ants that gave up because their route grew too long.
+     * @param stepsSaved Estimated steps the abandoned ants would still have walked.
+     * @param duplicates Number of routes identical to an earlier route of the generation.
+     */
+    public GenerationStats(String solver, int generation, int individuals, long bestLength, long generationBestLength,
+                           double averageLength, long durationNanos, long backtracks, long evaporationNanos,
+                           LengthHistogram lengths, int abandoned, long stepsSaved, int duplicates) {
+        this.solver = solver;
+        this.generation = generation;
+        this.individuals = individuals;
+        this.bestLength = bestLength;
+        this.generationBestLength = generationBestLength;
+        this.averageLength = averageLength;
+        this.durationNanos = durationNanos;
+        this.backtracks = backtracks;
+        this.evaporationNanos = evaporationNanos;
+        this.lengths = lengths;
+        this.abandoned = abandoned;
+        this.stepsSaved = stepsSaved;
+        this.duplicates = duplicates;
+    }
+
+    public String getSolver() {
+        return solver;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public int getIndividuals() {
+        return individuals;
+    }
+
+    public long getBestLength() {
+        return bestLength;
+    }
+
+    public long getGenerationBestLength() {
+        return generationBestLength;
+    }
+
+    public double getAverageLength() {
+        return averageLength;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    public long getEvaporationNanos() {
+        return evaporationNanos;
+    }
+
+    public LengthHistogram getLengths() {
+        return lengths;
+    }
+
+    public int getAbandoned() {
+        return abandoned;
+    }
+
+    public long getStepsSaved() {
+        return stepsSaved;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Share of the routes that were identical to an earlier route of the generation, which approaches 1 as a
+     * colony converges.
+     * @return double The duplicate rate.
+     */
+    public double getDuplicateRate() {
+        return individuals == 0 ? 0 : duplicates / (double) individuals;
+    }
+
+    /**
+     * Throughput of the generation.
+     * @return double Ants or chromosomes per second.
+     */
+    public double getIndividualsPerSecond() {
+        return individuals / Math.max(durationNanos / 1e9, 1e-9);
+    }
+}
@@ -5,18 +5,28 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * TSP problem solver using genetic algorithms
  */
-public class GeneticAlgorithm {
+public class GeneticAlgorithm implements TourSolver {
 
     private int generations;
     private int popSize;
     private double crossOverChance;
     private double mutationChance;
     private Random randomizer;
-    public static boolean DEBUG = true;
+    private LocalSearch.Mode localSearchMode;
+    private boolean memetic;
+    private LocalSearch localSearch;
+    private int exactThreshold = 18;
+    private double nearestNeighbourFraction = 0.1d;
+    private double greedyEdgeFraction = 0.01d;
+    private double randomInsertionFraction = 0.2d;
+    private final RunListeners listeners = new RunListeners();
+    public static boolean DEBUG = false;
     private static double ELITISM_RATIO = 1.5d;
 
     public GeneticAlgorithm(int generations, int popSize, double crossOverChance, double mutationChance) {
@@ -27,48 +37,171 @@ public class GeneticAlgorithm {
         this.randomizer = new Random();
     }
 
+    public GeneticAlgorithm(int generations, int popSize, double crossOverChance, double mutationChance, Random randomizer) {
+        this(generations, popSize, crossOverChance, mutationChance);
+        this.randomizer = randomizer;
+    }
+
+    /**
+     * Enable a local search stage for the next runs.
+     * @param mode The local search moves, or null to disable local search.
+     * @param memetic Whether every offspring is improved, or only the final best candidate.
+     */
+    public void setLocalSearch(LocalSearch.Mode mode, boolean memetic) {
+        this.localSearchMode = mode;
+        this.memetic = memetic;
+    }
+
+    /**
+     * Attach a listener receiving the statistics of every generation.
+     * @param listener The listener.
+     */
+    public void addListener(RunListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Detach a listener.
+     * @param listener The listener.
+     */
+    public void removeListener(RunListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Set which part of the initial population is seeded by construction heuristics, the rest is random.
+     * @param nearestNeighbourFraction Fraction of nearest neighbour orders, each starting at a random product.
+     * @param greedyEdgeFraction Fraction of greedy edge orders, all but the first with a random swap.
+     * @param randomInsertionFraction Fraction of random insertion orders.
+     */
+    public void setSeeding(double nearestNeighbourFraction, double greedyEdgeFraction, double randomInsertionFraction) {
+        this.nearestNeighbourFraction = nearestNeighbourFraction;
+        this.greedyEdgeFraction = greedyEdgeFraction;
+        this.randomInsertionFraction = randomInsertionFraction;
+    }
+
+    /**
+     * Set the largest number of products that is solved exactly with {@link HeldKarpSolver} instead of evolved.
+     * @param exactThreshold Maximum product count for the exact solver, 0 to always use the GA.
+     */
+    public void setExactThreshold(int exactThreshold) {
+        this.exactThreshold = Math.min(exactThreshold, HeldKarpSolver.MAX_PRODUCTS);
+    }
+
     /**
      * Solves the TSP using a genetic algorithm.
+     * Small instances (at most exactThreshold products) are solved exactly instead.
      * @param pd The TSPData.
      * @return int[] The order of items.
      */
     public int[] solveTSP(TSPData pd) {
+    	return solve(new ProductDistances(pd), null);
+    }
+
+    @Override
+    public int[] solve(ProductDistances pd, long seed, SolverProgress progress) {
+    	this.randomizer = new Random(seed);
+    	return solve(pd, progress);
+    }
+
+    /**
+     * Solves the TSP using a genetic algorithm, with the current randomizer.
+     * @param pd The product distances.
+     * @param progress Receives the best length after every generation that improved it, may be null.
+     * @return int[] The order of items.
+     */
+    private int[] solve(ProductDistances pd, SolverProgress progress) {
+    	if (pd.size() < 2) {
+    		// crossover and mutation need two distinct positions, and there is only one order anyway
+    		int[] order = new int[pd.size()];
+    		if (progress != null && order.length > 0) progress.improved(pd.length(order));
+    		return order;
+    	}
+    	if (pd.size() <= exactThreshold) {
+    		int[] order = new HeldKarpSolver().solve(pd);
+    		if (DEBUG) System.out.println("Solved exactly, total length: " + pd.length(order));
+    		if (progress != null) progress.improved(pd.length(order));
+    		return order;
+    	}
+    	
+    	long startTime = System.nanoTime();
+    	localSearch = localSearchMode == null ? null : new LocalSearch(pd, localSearchMode, 8);
     	List<Chromosome> population = new ArrayList<>();
-    	initializePopulation(population);
+    	initializePopulation(population, pd);
     	
     	calculateFitness(population, pd);
     	double initialFitness = getAverageFitness(population);
     	
     	if (DEBUG) System.out.println("Initial population size: " + population.size());
     	
+    	long bestLength = Long.MAX_VALUE;
     	int n = 0;
     	while (n < generations) {
-    		if (DEBUG) System.out.println("Generation " + n);
-    		if (DEBUG) System.out.println("----------------");
+    		boolean instrumented = listeners.isActive();
+    		long generationStart = instrumented ? System.nanoTime() : 0;
     		calculateFitness(population, pd);
-    		if (DEBUG) System.out.println("Average generation fitness: " + getAverageFitness(population));
-    		if (DEBUG) System.out.println("Generating generation " + (n+1) + "...");
+    		if (progress != null || instrumented) {
+    			long length = (long) getTotalDistance(getBestChromosome(population), pd);
+    			if (length < bestLength) {
+    				bestLength = length;
+    				if (progress != null) progress.improved(length);
+    			}
+    		}
+    		List<Chromosome> evaluated = population;
     		population = createNextGeneration(population);
-    		if (DEBUG) System.out.println("Done");
-    		if (DEBUG) System.out.println("--------------------------------------");
     		n += 1;
+    		if (instrumented) publish(n, evaluated, bestLength, System.nanoTime() - generationStart, pd);
     	}
     	
     	calculateFitness(population, pd);
     	
-    	System.out.println("Generation " + generations);
-		System.out.println("----------------");
-    	System.out.println("Average generation fitness: " + getAverageFitness(population));
-    	System.out.println("Get fittest candidate off last generation...");
+    	if (DEBUG) {
+    		System.out.println("Generation " + generations);
+    		System.out.println("----------------");
+    		System.out.println("Average generation fitness: " + getAverageFitness(population));
+    	}
     	Chromosome bestCandidate = getBestChromosome(population);
+    	if (localSearch != null) localSearch.improve(bestCandidate);
+    	if (progress != null && getTotalDistance(bestCandidate, pd) < bestLength) {
+    		progress.improved((long) getTotalDistance(bestCandidate, pd));
+    	}
     	
-    	System.out.println("Start fitness: " + initialFitness);
-    	System.out.println("Final fitness: " + bestCandidate.getFitness());
-    	System.out.println("Total length: " + getTotalDistance(bestCandidate, pd));
+    	if (DEBUG) {
+    		System.out.println("Start fitness: " + initialFitness);
+    		System.out.println("Final fitness: " + bestCandidate.getFitness());
+    		System.out.println("Total length: " + getTotalDistance(bestCandidate, pd));
+    		if (localSearch != null) {
+    			long localSearchNanos = localSearch.getTwoOptNanos() + localSearch.getOrOptNanos();
+    			System.out.println("Evolution time: " + ((System.nanoTime() - startTime - localSearchNanos) / 1000000.0) + "ms");
+    			System.out.println(localSearch.statsToString());
+    		}
+    	}
     	
         return bestCandidate.getChromosome();
     }
     
+    /**
+     * Send the statistics of an evaluated generation to the listeners.
+     * @param generation The generation number.
+     * @param population The evaluated population.
+     * @param bestLength Best length of the run so far.
+     * @param durationNanos Time taken to evaluate and breed the generation.
+     * @param pd The product distances.
+     */
+    private void publish(int generation, List<Chromosome> population, long bestLength, long durationNanos, ProductDistances pd) {
+    	LengthHistogram lengths = new LengthHistogram();
+    	long generationBest = Long.MAX_VALUE;
+    	long total = 0;
+    	for (Chromosome chromosome : population) {
+    		long length = pd.length(chromosome.getChromosome());
+    		lengths.record(length);
+    		total += length;
+    		generationBest = Math.min(generationBest, length);
+    	}
+    	listeners.publish(new GenerationStats("GA", generation, population.size(), bestLength, generationBest,
+    			total / (double) population.size(), durationNanos, 0, 0, lengths));
+    }
+    
     public double getAverageFitness(List<Chromosome> pop) {
     	double average = 0.0d;
     	for (Chromosome c : pop) {
@@ -99,8 +232,9 @@ public class GeneticAlgorithm {
     		Chromosome father = getRouletteChromosome(currentPopulation);
     		Chromosome mother = getRouletteChromosome(currentPopulation);
     		
-    		// make sure mother and father are not the same
-    		while (father.equals(mother)) {
+    		// make sure mother and father are not the same, unless the population has converged
+    		int attempts = 0;
+    		while (father.equals(mother) && attempts++ < currentPopulation.size()) {
     			mother = getRouletteChromosome(currentPopulation); 
     		}
     		
@@ -120,6 +254,11 @@ public class GeneticAlgorithm {
     			child.mutate(randomizer);
     		}
     		
+    		if (memetic && localSearch != null) {
+    			// improve the offspring with local search
+    			localSearch.improve(child);
+    		}
+    		
     		nextGeneration.add(child);
     		
     	}
@@ -236,9 +375,9 @@ public class GeneticAlgorithm {
     /**
      * Calculates the fitness of each chromosome.
      * @param pop List of Chromosomes.
-     * @param tsp The TSPData.
+     * @param tsp The product distances.
      */
-    public void calculateFitness(List<Chromosome> pop, TSPData tsp) {
+    public void calculateFitness(List<Chromosome> pop, ProductDistances tsp) {
     	double totalDist = 0.0d;
     	for (Chromosome c : pop) {
     		totalDist += getTotalDistance(c,tsp);
@@ -252,31 +391,45 @@ public class GeneticAlgorithm {
     /**
      * Get total distance of a chromosome.
      * @param order The chromosome.
-     * @param tsp The TSPData to search in.
+     * @param tsp The product distances to search in.
      * @return int The total distance.
      */
-    public double getTotalDistance(Chromosome order, TSPData tsp) {
-    	double total = tsp.getStartDistances()[order.getChromosome()[0]];
-    	for (int i = 0; i < order.getChromosome().length-1; i++) {
-    		total += (double) tsp.getDistances()[order.getChromosome()[i]][order.getChromosome()[i+1]];
-    	}
-    	total += tsp.getEndDistances()[order.getChromosome().length-1];
-    	return total;
+    public double getTotalDistance(Chromosome order, ProductDistances tsp) {
+    	return tsp.length(order.getChromosome());
     }
     
     /**
-     * Initialize random population.
+     * Initialize the population for all products of the TSPData.
+     * The first part is seeded with nearest neighbour, greedy edge and random insertion orders, the rest is
+     * shuffled randomly. Chromosomes are built in parallel, each with a randomizer derived from this GA's.
      * @param initialPop List<Chromosome> Empty gen.
+     * @param distances The product distances.
      */
-    public void initializePopulation(List<Chromosome> initialPop) {
-    	for (int i = 0; i < popSize; i++) {
-    		initialPop.add(new Chromosome(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17}));
-    	}
-    	
-    	initialPop.forEach(Chromosome::shuffle);
-    	
-    
+    public void initializePopulation(List<Chromosome> initialPop, ProductDistances distances) {
+    	int products = distances.size();
+    	int nearestNeighbours = (int) Math.ceil(popSize * nearestNeighbourFraction);
+    	int greedyEdges = nearestNeighbours + (int) Math.ceil(popSize * greedyEdgeFraction);
+    	int randomInsertions = greedyEdges + (int) Math.ceil(popSize * randomInsertionFraction);
+    	int[] greedy = greedyEdges > nearestNeighbours ? TourConstruction.greedyEdge(distances) : null;
+    	long seed = randomizer.nextLong();
     	
+    	initialPop.addAll(IntStream.range(0, popSize).parallel().mapToObj(i -> {
+    		Random random = new Random(seed + i * 0x9E3779B97F4A7C15L);
+    		if (i < nearestNeighbours) {
+    			return new Chromosome(TourConstruction.nearestNeighbour(distances, i == 0 ? -1 : random.nextInt(products)));
+    		}
+    		if (i < greedyEdges) {
+    			Chromosome chromosome = new Chromosome(greedy.clone());
+    			if (i > nearestNeighbours && products > 1) chromosome.mutate(random);
+    			return chromosome;
+    		}
+    		if (i < randomInsertions) {
+    			return new Chromosome(TourConstruction.randomInsertion(distances, random));
+    		}
+    		Chromosome chromosome = new Chromosome(IntStream.range(0, products).toArray());
+    		chromosome.shuffle(random);
+    		return chromosome;
+    	}).collect(Collectors.toList()));
     }
 
     /**
@@ -291,7 +444,9 @@ public class GeneticAlgorithm {
         TSPData tspData = TSPData.readFromFile(persistFile);
 
         GeneticAlgorithm ga = new GeneticAlgorithm(generations, populationSize, crossOverChance, mutationChance);
+        ga.addListener(new ConsoleRunListener());
         int[] solution = ga.solveTSP(tspData);
+        System.out.println("Total length: " + new ProductDistances(tspData).length(solution));
         
         for (int i : solution) {
         	System.out.print(i + " ");
@@ -0,0 +1,70 @@
+/**
+ * Pheromones as a double array on the heap. The bulk operations use PheromoneKernels, vectorised when the
+ * Vector API is available.
+ */
+public class HeapPheromoneGrid implements PheromoneGrid {
+    private static final PheromoneKernels KERNELS = PheromoneKernels.get();
+    private final double[] pheromones;
+
+    /**
+     * Constructor of an empty grid.
+     * @param cells Number of cells.
+     */
+    public HeapPheromoneGrid(int cells) {
+        this.pheromones = new double[cells];
+    }
+
+    @Override
+    public int size() {
+        return pheromones.length;
+    }
+
+    @Override
+    public double get(int cell) {
+        return pheromones[cell];
+    }
+
+    @Override
+    public void set(int cell, double value) {
+        pheromones[cell] = value;
+    }
+
+    @Override
+    public void add(int cell, double amount) {
+        pheromones[cell] += amount;
+    }
+
+    @Override
+    public void scale(double factor) {
+        KERNELS.scale(pheromones, factor);
+    }
+
+    @Override
+    public void fillOpen(WallBits walls, CellLayout layout, double value) {
+        if (layout instanceof RowMajorLayout) {
+            KERNELS.fillOpen(pheromones, walls, value);
+        } else {
+            PheromoneGrid.super.fillOpen(walls, layout, value);
+        }
+    }
+
+    @Override
+    public void clamp(double min, double max) {
+        KERNELS.clamp(pheromones, min, max);
+    }
+
+    @Override
+    public void addAll(int[] cells, int count, double amount) {
+        KERNELS.deposit(pheromones, cells, count, amount);
+    }
+
+    @Override
+    public void copyTo(double[] target) {
+        System.arraycopy(pheromones, 0, target, 0, pheromones.length);
+    }
+
+    @Override
+    public void copyFrom(double[] source) {
+        System.arraycopy(source, 0, pheromones, 0, pheromones.length);
+    }
+}
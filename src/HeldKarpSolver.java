@@ -0,0 +1,113 @@
+import java.util.stream.IntStream;
+
+/**
+ * Exact TSP solver using the Held-Karp dynamic program over subsets of products. The path starts at the start
+ * point, visits every product once and ends at the end point. Time is O(2^n * n^2) and memory O(2^n * n), so it
+ * is only suitable for small product counts. The subsets of one size only depend on the subsets one smaller, so
+ * every layer is computed in parallel.
+ */
+public class HeldKarpSolver implements TourSolver {
+    public static final int MAX_PRODUCTS = 22;
+
+    @Override
+    public int[] solve(ProductDistances pd, long seed, SolverProgress progress) {
+        int[] order = solve(pd);
+        if (progress != null) progress.improved(pd.length(order));
+        return order;
+    }
+
+    /**
+     * Solves the TSP exactly.
+     * @param pd The product distances.
+     * @return int[] The optimal order of items.
+     */
+    public int[] solve(ProductDistances pd) {
+        final int n = pd.size();
+        if (n > MAX_PRODUCTS) {
+            throw new IllegalArgumentException("Too many products for an exact solution: " + n);
+        }
+        if (n == 0) return new int[0];
+
+        final int[] distances = new int[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                distances[i * n + j] = pd.between(i, j);
+            }
+        }
+
+        // length[mask * n + last]: shortest path from the start through all products in mask, ending in last
+        final int[] length = new int[(1 << n) * n];
+        final byte[] previous = new byte[(1 << n) * n];
+        for (int j = 0; j < n; j++) {
+            length[(1 << j) * n + j] = pd.fromStart(j);
+            previous[(1 << j) * n + j] = -1;
+        }
+
+        int[][] layers = buildLayers(n);
+        for (int size = 2; size <= n; size++) {
+            final int[] layer = layers[size];
+            IntStream.range(0, layer.length).parallel().forEach(index -> {
+                int mask = layer[index];
+                for (int last = 0; last < n; last++) {
+                    if ((mask & (1 << last)) == 0) continue;
+                    int rest = mask ^ (1 << last);
+                    int best = Integer.MAX_VALUE;
+                    int bestPrevious = -1;
+                    for (int prev = 0; prev < n; prev++) {
+                        if ((rest & (1 << prev)) == 0) continue;
+                        int candidate = length[rest * n + prev] + distances[prev * n + last];
+                        if (candidate < best) {
+                            best = candidate;
+                            bestPrevious = prev;
+                        }
+                    }
+                    length[mask * n + last] = best;
+                    previous[mask * n + last] = (byte) bestPrevious;
+                }
+            });
+        }
+
+        int full = (1 << n) - 1;
+        int last = 0;
+        long best = Long.MAX_VALUE;
+        for (int j = 0; j < n; j++) {
+            long candidate = (long) length[full * n + j] + pd.toEnd(j);
+            if (candidate < best) {
+                best = candidate;
+                last = j;
+            }
+        }
+
+        int[] order = new int[n];
+        int mask = full;
+        for (int i = n - 1; i >= 0; i--) {
+            order[i] = last;
+            int prev = previous[mask * n + last];
+            mask ^= 1 << last;
+            last = prev;
+        }
+        return order;
+    }
+
+    /**
+     * Group all subsets of n products by their number of products.
+     * @param n Number of products.
+     * @return int[][] For every subset size the bitmasks of that size.
+     */
+    private static int[][] buildLayers(int n) {
+        int[] counts = new int[n + 1];
+        for (int mask = 0; mask < (1 << n); mask++) {
+            counts[Integer.bitCount(mask)]++;
+        }
+        int[][] layers = new int[n + 1][];
+        for (int size = 0; size <= n; size++) {
+            layers[size] = new int[counts[size]];
+            counts[size] = 0;
+        }
+        for (int mask = 0; mask < (1 << n); mask++) {
+            int size = Integer.bitCount(mask);
+            layers[size][counts[size]++] = mask;
+        }
+        return layers;
+    }
+}
@@ -0,0 +1,248 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TSP problem solver running several independent GeneticAlgorithm populations (islands) on separate threads.
+ * Every few generations the best individuals of each island migrate to a neighbouring island.
+ */
+public class IslandGeneticAlgorithm implements TourSolver {
+
+    /**
+     * Migration topology between the islands.
+     *      RING: island i sends its migrants to island i+1.
+     *      RANDOM: every migration round picks a random other island.
+     */
+    public enum Topology { RING, RANDOM }
+
+    private int islands;
+    private int generations;
+    private int popSize;
+    private double crossOverChance;
+    private double mutationChance;
+    private int migrationInterval;
+    private int migrants;
+    private Topology topology;
+    private long seed;
+    public static boolean DEBUG = false;
+
+    /**
+     * Constructor of the island model.
+     * @param islands Number of sub-populations, each evolved on its own thread.
+     * @param generations Number of generations every island evolves.
+     * @param popSize Population size of a single island.
+     * @param crossOverChance Chance of crossover.
+     * @param mutationChance Chance of mutation.
+     * @param migrationInterval Number of generations between two migrations, at least 1.
+     * @param migrants Number of best individuals sent per migration.
+     * @param topology Migration topology.
+     */
+    public IslandGeneticAlgorithm(int islands, int generations, int popSize, double crossOverChance, double mutationChance,
+                                  int migrationInterval, int migrants, Topology topology) {
+        if (islands < 1) throw new IllegalArgumentException("At least one island is needed, not " + islands);
+        if (migrationInterval < 1) throw new IllegalArgumentException("Migration interval must be at least 1, not " + migrationInterval);
+        this.islands = islands;
+        this.generations = generations;
+        this.popSize = popSize;
+        this.crossOverChance = crossOverChance;
+        this.mutationChance = mutationChance;
+        this.migrationInterval = migrationInterval;
+        this.migrants = migrants;
+        this.topology = topology;
+        this.seed = new Random().nextLong();
+    }
+
+    /**
+     * Set the seed the island randomizers are derived from, so runs can be repeated.
+     * @param seed The seed.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Solves the TSP by evolving all islands in parallel.
+     * @param pd The TSPData.
+     * @return int[] The order of items of the best individual over all islands.
+     */
+    public int[] solveTSP(TSPData pd) {
+        return solve(new ProductDistances(pd), seed, null);
+    }
+
+    @Override
+    public int[] solve(ProductDistances pd, long seed, SolverProgress progress) {
+        if (pd.size() < 2) {
+            // crossover and mutation need two distinct positions, and there is only one order anyway
+            int[] order = new int[pd.size()];
+            if (progress != null && order.length > 0) progress.improved(pd.length(order));
+            return order;
+        }
+        List<Queue<Chromosome>> inboxes = new ArrayList<>();
+        for (int i = 0; i < islands; i++) {
+            inboxes.add(new ConcurrentLinkedQueue<>());
+        }
+
+        AtomicLong reported = new AtomicLong(Long.MAX_VALUE);
+        ExecutorService executor = Executors.newFixedThreadPool(islands);
+        List<Future<Chromosome>> results = new ArrayList<>();
+        for (int i = 0; i < islands; i++) {
+            final int island = i;
+            results.add(executor.submit(() -> evolveIsland(island, seed, inboxes, pd, progress, reported)));
+        }
+
+        Chromosome best = null;
+        double bestDistance = Double.MAX_VALUE;
+        try {
+            for (Future<Chromosome> result : results) {
+                Chromosome candidate = result.get();
+                double distance = pd.length(candidate.getChromosome());
+                if (distance < bestDistance) {
+                    best = candidate;
+                    bestDistance = distance;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for islands", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Island failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (DEBUG) System.out.println("Total length: " + bestDistance);
+        report(progress, reported, (long) bestDistance);
+        return best.getChromosome();
+    }
+
+    /**
+     * Evolves a single island, sending and receiving migrants every migrationInterval generations.
+     * @param island Index of the island.
+     * @param seed The seed the randomizer of the island is derived from.
+     * @param inboxes Migration queues of all islands.
+     * @param pd The product distances.
+     * @param progress Receives the best length over all islands whenever an island improves it, may be null.
+     * @param reported The last length passed to progress, shared by all islands.
+     * @return Chromosome The best chromosome the island had in any generation.
+     */
+    private Chromosome evolveIsland(int island, long seed, List<Queue<Chromosome>> inboxes, ProductDistances pd,
+                                    SolverProgress progress, AtomicLong reported) {
+        Random random = new Random(seed + island);
+        GeneticAlgorithm ga = new GeneticAlgorithm(generations, popSize, crossOverChance, mutationChance, random);
+        List<Chromosome> population = new ArrayList<>();
+        ga.initializePopulation(population, pd);
+        // a generation may lose its best individual, so the island keeps the best one it ever had
+        Chromosome best = fittest(population, pd, null);
+        report(progress, reported, pd.length(best.getChromosome()));
+
+        for (int generation = 1; generation <= generations; generation++) {
+            ga.calculateFitness(population, pd);
+            population = ga.createNextGeneration(population);
+            best = fittest(population, pd, best);
+            report(progress, reported, pd.length(best.getChromosome()));
+
+            if (islands > 1 && generation % migrationInterval == 0) {
+                population.sort(Comparator.comparingDouble(c -> pd.length(c.getChromosome())));
+                Queue<Chromosome> target = inboxes.get(getTarget(island, random));
+                for (int i = 0; i < migrants && i < population.size(); i++) {
+                    target.offer(new Chromosome(population.get(i).getChromosome().clone()));
+                }
+                // Migrants replace the worst individuals of this island
+                int replace = population.size() - 1;
+                Chromosome migrant;
+                while (replace >= 0 && (migrant = inboxes.get(island).poll()) != null) {
+                    population.set(replace--, migrant);
+                }
+            }
+        }
+
+        if (DEBUG) System.out.println("[Island " + island + "] Best length: " + pd.length(best.getChromosome()));
+        return best;
+    }
+
+    /**
+     * The shortest of a population and the best chromosome so far.
+     * @param population The population.
+     * @param pd The product distances.
+     * @param best The best chromosome so far, null if there is none.
+     * @return Chromosome The best chromosome so far, or a copy of a shorter member of the population.
+     */
+    private static Chromosome fittest(List<Chromosome> population, ProductDistances pd, Chromosome best) {
+        long bestLength = best == null ? Long.MAX_VALUE : pd.length(best.getChromosome());
+        for (Chromosome chromosome : population) {
+            long length = pd.length(chromosome.getChromosome());
+            if (length < bestLength) {
+                best = new Chromosome(chromosome.getChromosome().clone());
+                bestLength = length;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Pass a length to the progress if it is shorter than every length passed before by any island.
+     * @param progress The progress, may be null.
+     * @param reported The last length passed to progress.
+     * @param length The length found by an island.
+     */
+    private static void report(SolverProgress progress, AtomicLong reported, long length) {
+        if (progress == null || length >= reported.get()) return;
+        // islands report one at a time, so the progress sees strictly decreasing lengths
+        synchronized (reported) {
+            if (length < reported.get()) {
+                reported.set(length);
+                progress.improved(length);
+            }
+        }
+    }
+
+    /**
+     * Select the island migrants are sent to.
+     * @param island The sending island.
+     * @param random The randomizer of the sending island.
+     * @return int The receiving island.
+     */
+    private int getTarget(int island, Random random) {
+        if (topology == Topology.RING) {
+            return (island + 1) % islands;
+        }
+        int target = random.nextInt(islands - 1);
+        return target >= island ? target + 1 : target;
+    }
+
+    /**
+     * Assignment 2.b, island model variant.
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        int islands = Runtime.getRuntime().availableProcessors();
+        int populationSize = 250;
+        int generations = 1000;
+        double crossOverChance = 0.7d;
+        double mutationChance = 0.001d;
+        int migrationInterval = 25;
+        int migrants = 5;
+        String persistFile = "./tmp/productMatrixDist";
+        TSPData tspData = TSPData.readFromFile(persistFile);
+
+        IslandGeneticAlgorithm ga = new IslandGeneticAlgorithm(islands, generations, populationSize, crossOverChance,
+                mutationChance, migrationInterval, migrants, Topology.RING);
+        long startTime = System.currentTimeMillis();
+        int[] solution = ga.solveTSP(tspData);
+        System.out.println("Time taken: " + ((System.currentTimeMillis() - startTime) / 1000.0) + " Seconds");
+
+        for (int i : solution) {
+            System.out.print(i + " ");
+        }
+
+        tspData.writeActionFile(solution, "./data/TSP solution.txt");
+    }
+}
@@ -0,0 +1,164 @@
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Improvement engine for large product counts in the spirit of chained Lin-Kernighan. A constructed order is
+ * brought to a 2-opt / Or-opt local optimum, after which the engine repeatedly applies a segment-local
+ * double-bridge kick, repairs it with local search around the changed products and keeps the result if it is
+ * not longer. The engine is anytime: it runs until its time budget is used up or stop() is called, and the best
+ * order found so far can be read at any moment from another thread.
+ */
+public class IteratedLocalSearch implements TourSolver {
+    private static final int NEIGHBOURS = 8;
+    private static final int MAX_KICK_SEGMENT = 50;
+
+    private final TourConstruction.Strategy construction;
+    private final long budgetMillis;
+    private ProductDistances pd;
+    private Random randomizer;
+    private SolverProgress progress;
+    private volatile int[] bestOrder;
+    private volatile long bestLength = Long.MAX_VALUE;
+    private volatile boolean stopped;
+    private long kicks;
+
+    /**
+     * Constructor of the engine.
+     * @param construction The heuristic building the initial order.
+     * @param budgetMillis The time budget of a run in milliseconds.
+     */
+    public IteratedLocalSearch(TourConstruction.Strategy construction, long budgetMillis) {
+        this.construction = construction;
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Improve the order until the time budget is used up or stop() is called.
+     * @param pd The product distances, at least one product.
+     * @param seed The seed of the kicks.
+     * @param progress Receives every improvement of the best order, may be null.
+     * @return int[] The best order found.
+     */
+    @Override
+    public int[] solve(ProductDistances pd, long seed, SolverProgress progress) {
+        long deadline = System.nanoTime() + budgetMillis * 1000000L;
+        this.pd = pd;
+        this.randomizer = new Random(seed);
+        this.progress = progress;
+        this.bestOrder = null;
+        this.bestLength = Long.MAX_VALUE;
+        stopped = false;
+        int n = pd.size();
+        if (n == 0) throw new IllegalArgumentException("Nothing to solve without products");
+        int[] current = TourConstruction.build(construction, pd, randomizer);
+        if (n < 4) {
+            // too few products for the moves of the local search
+            publish(current, pd.length(current));
+            return bestOrder.clone();
+        }
+        LocalSearch localSearch = new LocalSearch(pd, LocalSearch.Mode.TWO_AND_OR_OPT, NEIGHBOURS);
+        current = localSearch.improve(current);
+        long currentLength = pd.length(current);
+        publish(current, currentLength);
+
+        int[] changed = new int[8];
+        while (n >= 8 && !stopped && System.nanoTime() < deadline) {
+            int[] candidate = doubleBridge(current, changed);
+            candidate = localSearch.improve(candidate, changed);
+            long candidateLength = pd.length(candidate);
+            kicks++;
+            if (candidateLength <= currentLength) {
+                current = candidate;
+                if (candidateLength < currentLength) publish(current, candidateLength);
+                currentLength = candidateLength;
+            }
+        }
+        return bestOrder.clone();
+    }
+
+    /**
+     * Swap two consecutive segments of the order, so A B C D becomes A C B D, with B and C at most
+     * MAX_KICK_SEGMENT products long. Edges inside the segments are kept, so the kick works on asymmetric
+     * distances as well.
+     * @param order The order to kick, not modified.
+     * @param changed Filled with the 8 products next to the cut points.
+     * @return int[] The kicked order.
+     */
+    private int[] doubleBridge(int[] order, int[] changed) {
+        int n = order.length;
+        int first = 1 + randomizer.nextInt(n - 3);
+        int second = Math.min(first + 1 + randomizer.nextInt(MAX_KICK_SEGMENT), n - 2);
+        int third = Math.min(second + 1 + randomizer.nextInt(MAX_KICK_SEGMENT), n - 1);
+        if (second <= first || third <= second) return order.clone();
+
+        int[] kicked = new int[n];
+        System.arraycopy(order, 0, kicked, 0, first);
+        System.arraycopy(order, second, kicked, first, third - second);
+        System.arraycopy(order, first, kicked, first + third - second, second - first);
+        System.arraycopy(order, third, kicked, third, n - third);
+
+        changed[0] = order[first - 1];
+        changed[1] = order[first];
+        changed[2] = order[second - 1];
+        changed[3] = order[second];
+        changed[4] = order[third - 1];
+        changed[5] = order[third];
+        changed[6] = order[Math.min(third + 1, n - 1)];
+        changed[7] = order[Math.max(first - 2, 0)];
+        return kicked;
+    }
+
+    /**
+     * Make a new best order visible to other threads.
+     * @param order The order.
+     * @param length The length of the order.
+     */
+    private void publish(int[] order, long length) {
+        bestOrder = order.clone();
+        bestLength = length;
+        if (progress != null) progress.improved(length);
+    }
+
+    /**
+     * Stop a running solve() after its current kick.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Best order found so far, safe to call while solve() is running.
+     * @return int[] A copy of the best order, or null before the initial order is built.
+     */
+    public int[] getBestOrder() {
+        int[] order = bestOrder;
+        return order == null ? null : order.clone();
+    }
+
+    /**
+     * Length of the best order found so far.
+     * @return long The length, Long.MAX_VALUE before the initial order is built.
+     */
+    public long getBestLength() {
+        return bestLength;
+    }
+
+    /**
+     * Number of kicks applied in the last runs.
+     * @return long The number of kicks.
+     */
+    public long getKicks() {
+        return kicks;
+    }
+
+    /**
+     * Driver for the engine on the persisted product distances.
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        TSPData tspData = TSPData.readFromFile("./tmp/productMatrixDist");
+        IteratedLocalSearch engine = new IteratedLocalSearch(TourConstruction.Strategy.GREEDY_EDGE, 500);
+        int[] solution = engine.solve(new ProductDistances(tspData), new Random().nextLong(), null);
+        System.out.println("Total length: " + engine.getBestLength() + " after " + engine.getKicks() + " kicks");
+        tspData.writeActionFile(solution, "./data/TSP solution.txt");
+    }
+}
@@ -0,0 +1,71 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.Timespan;
+
+/**
+ * Emits a JFR event for every generation, so runs can be inspected in a flight recording next to GC and
+ * allocation events. Enable with -XX:StartFlightRecording; without an active recording the listener only
+ * checks whether the event is enabled.
+ */
+public class JfrRunListener implements RunListener {
+
+    @Name("solver.Generation")
+    @Label("Solver Generation")
+    @Category("Solver")
+    @Description("Statistics of a single generation of a solver run")
+    static class GenerationEvent extends Event {
+        @Label("Solver")
+        String solver;
+        @Label("Generation")
+        int generation;
+        @Label("Individuals")
+        int individuals;
+        @Label("Best Length")
+        long bestLength;
+        @Label("Generation Best Length")
+        long generationBestLength;
+        @Label("Average Length")
+        double averageLength;
+        @Label("Generation Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long generationDuration;
+        @Label("Individuals Per Second")
+        double individualsPerSecond;
+        @Label("Backtracks")
+        long backtracks;
+        @Label("Evaporation Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long evaporationDuration;
+        @Label("Abandoned")
+        int abandoned;
+        @Label("Steps Saved")
+        long stepsSaved;
+        @Label("Duplicate Rate")
+        @Percentage
+        double duplicateRate;
+    }
+
+    @Override
+    public void generationCompleted(GenerationStats stats) {
+        GenerationEvent event = new GenerationEvent();
+        if (!event.isEnabled()) return;
+        event.solver = stats.getSolver();
+        event.generation = stats.getGeneration();
+        event.individuals = stats.getIndividuals();
+        event.bestLength = stats.getBestLength();
+        event.generationBestLength = stats.getGenerationBestLength();
+        event.averageLength = stats.getAverageLength();
+        event.generationDuration = stats.getDurationNanos();
+        event.individualsPerSecond = stats.getIndividualsPerSecond();
+        event.backtracks = stats.getBacktracks();
+        event.evaporationDuration = stats.getEvaporationNanos();
+        event.abandoned = stats.getAbandoned();
+        event.stepsSaved = stats.getStepsSaved();
+        event.duplicateRate = stats.getDuplicateRate();
+        event.commit();
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the scalar pheromone kernels with the kernels PheromoneKernels.get() picks, per maze size. Run with
+ * the vector/ classes on the classpath and --add-modules jdk.incubator.vector to measure the vectorised kernels.
+ * Usage: KernelBenchmark
+ */
+public class KernelBenchmark {
+    private static final int[] SIZES = {101, 301, 1001, 2001, 4001};
+    private static final int REPETITIONS = 20;
+    private static final long WARM_UP_NANOS = 500000000L;
+
+    public static void main(String[] args) {
+        PheromoneKernels scalar = new ScalarPheromoneKernels();
+        PheromoneKernels fastest = PheromoneKernels.get();
+        System.out.println("Kernels: " + fastest.name());
+        System.out.println("size\tkernel\tscalar_ms\t" + fastest.name() + "_ms\tspeedup");
+        for (int size : SIZES) {
+            Random random = new Random(size);
+            WallBits walls = new WallBits(size, size, false);
+            for (int cell = 0; cell < size * size; cell++) {
+                if (random.nextBoolean()) walls.setOpen(cell);
+            }
+            // a route visits about two tiles per maze column
+            int[] slots = random.ints(0, size * size).distinct().limit(2L * size).toArray();
+            double[] values = new double[size * size];
+
+            String[] kernels = {"evaporate", "fillOpen", "clamp", "deposit"};
+            for (String kernel : kernels) {
+                double scalarMillis = time(scalar, kernel, values, walls, slots);
+                double fastestMillis = time(fastest, kernel, values, walls, slots);
+                System.out.println(String.format(Locale.ROOT, "%d\t%s\t%.4f\t%.4f\t%.2fx", size, kernel, scalarMillis,
+                        fastestMillis, scalarMillis / fastestMillis));
+            }
+        }
+    }
+
+    /**
+     * Best time of a kernel over REPETITIONS runs, after warming up for WARM_UP_NANOS so the Vector API calls
+     * are compiled to vector instructions.
+     */
+    private static double time(PheromoneKernels kernels, String kernel, double[] values, WallBits walls, int[] slots) {
+        long warmUpEnd = System.nanoTime() + WARM_UP_NANOS;
+        while (System.nanoTime() < warmUpEnd) run(kernels, kernel, values, walls, slots);
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < REPETITIONS; run++) {
+            long startTime = System.nanoTime();
+            run(kernels, kernel, values, walls, slots);
+            best = Math.min(best, System.nanoTime() - startTime);
+        }
+        return best / 1e6;
+    }
+
+    private static void run(PheromoneKernels kernels, String kernel, double[] values, WallBits walls, int[] slots) {
+        switch (kernel) {
+            case "evaporate":
+                kernels.scale(values, 0.999999d);
+                break;
+            case "fillOpen":
+                kernels.fillOpen(values, walls, 1000.0d);
+                break;
+            case "clamp":
+                kernels.clamp(values, 1.0d, 500.0d);
+                break;
+            default:
+                kernels.deposit(values, slots, slots.length, 0.5d);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Measures the cache behaviour of the cell layouts. Ants walk the maze while every pheromone access is fed
+ * to a simulated set-associative LRU cache the size of an L1 and of an L2 data cache; the report lists the
+ * simulated misses per ant step and the wall time of the same walks without tracing.
+ * Usage: LayoutCacheReport [maze file] [coordinate file]
+ */
+public class LayoutCacheReport {
+    private static final int L1_BYTES = 32 * 1024;
+    private static final int L2_BYTES = 1024 * 1024;
+    private static final int LINE_BYTES = 64;
+    private static final int WAYS = 8;
+    private static final int ANTS = 20;
+
+    /**
+     * Set-associative cache with LRU replacement, counting misses.
+     */
+    private static class CacheSimulator {
+        private final long[] tags;
+        private final long[] lastUse;
+        private final int sets;
+        private long time;
+        private long misses;
+
+        CacheSimulator(int bytes, int lineBytes, int ways) {
+            this.sets = bytes / lineBytes / ways;
+            this.tags = new long[sets * ways];
+            this.lastUse = new long[sets * ways];
+            Arrays.fill(tags, -1);
+        }
+
+        void access(long address) {
+            long line = address / LINE_BYTES;
+            int set = (int) (line % sets);
+            int victim = set * WAYS;
+            time++;
+            for (int way = set * WAYS; way < (set + 1) * WAYS; way++) {
+                if (tags[way] == line) {
+                    lastUse[way] = time;
+                    return;
+                }
+                if (lastUse[way] < lastUse[victim]) victim = way;
+            }
+            misses++;
+            tags[victim] = line;
+            lastUse[victim] = time;
+        }
+    }
+
+    /**
+     * Pheromone grid passing every access to the cache simulator, as if the grid held 8 byte doubles.
+     */
+    private static class TracingPheromoneGrid extends HeapPheromoneGrid {
+        private final CacheSimulator[] caches;
+
+        TracingPheromoneGrid(int cells, CacheSimulator... caches) {
+            super(cells);
+            this.caches = caches;
+        }
+
+        @Override
+        public double get(int cell) {
+            for (CacheSimulator cache : caches) cache.access(cell * 8L);
+            return super.get(cell);
+        }
+
+        @Override
+        public void add(int cell, double amount) {
+            for (CacheSimulator cache : caches) cache.access(cell * 8L);
+            super.add(cell, amount);
+        }
+
+        @Override
+        public void addAll(int[] cells, int count, double amount) {
+            for (int i = 0; i < count; i++) add(cells[i], amount);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String mazeFile = args.length > 0 ? args[0] : "./data/hard maze.txt";
+        String coordinateFile = args.length > 1 ? args[1] : "./data/hard coordinates.txt";
+        PathSpecification spec = PathSpecification.readCoordinates(coordinateFile);
+        Maze text = Maze.createMaze(mazeFile, 1000);
+        WallBits walls = WallBits.fromCells(cells(text), text.width, text.length, false);
+
+        String[] names = {"row-major", "sparse", "tiled 8x8", "morton"};
+        List<Function<WallBits, CellLayout>> layouts = List.of(
+                w -> new RowMajorLayout(text.width, text.length),
+                w -> new SparseLayout(w),
+                w -> new TiledLayout(text.width, text.length, 3),
+                w -> new MortonLayout(text.width, text.length));
+        System.out.println("layout\tslots\tsteps\tl1_misses_per_step\tl2_misses_per_step\tms");
+        for (int i = 0; i < layouts.size(); i++) {
+            CellLayout layout = layouts.get(i).apply(walls);
+            CacheSimulator l1 = new CacheSimulator(L1_BYTES, LINE_BYTES, WAYS);
+            CacheSimulator l2 = new CacheSimulator(L2_BYTES, LINE_BYTES, WAYS);
+            long steps = walk(new Maze(walls, layout, cells -> new TracingPheromoneGrid(cells, l1, l2), 1000), spec);
+            walk(new Maze(walls, layout, HeapPheromoneGrid::new, 1000), spec);
+            long startTime = System.nanoTime();
+            walk(new Maze(walls, layout, HeapPheromoneGrid::new, 1000), spec);
+            System.out.println(String.format(Locale.ROOT, "%s\t%d\t%d\t%.3f\t%.4f\t%.1f", names[i], layout.size(), steps,
+                    l1.misses / (double) steps, l2.misses / (double) steps, (System.nanoTime() - startTime) / 1e6));
+        }
+    }
+
+    /**
+     * Walk ANTS ants with a fixed seed, depositing after every ant.
+     * @return long The number of ant steps.
+     */
+    private static long walk(Maze maze, PathSpecification spec) {
+        Random random = new Random(42);
+        long steps = 0;
+        for (int i = 0; i < ANTS; i++) {
+            Ant ant = new Ant(maze, spec, random);
+            while (!ant.hasReachedEnd()) {
+                ant.move();
+                steps++;
+            }
+            maze.addPheromoneRoute(ant.findRoute(), 1000);
+        }
+        return steps;
+    }
+
+    private static byte[] cells(Maze maze) {
+        byte[] cells = new byte[maze.width * maze.length];
+        for (int y = 0; y < maze.length; y++) {
+            for (int x = 0; x < maze.width; x++) {
+                if (maze.isPassable(new Coordinate(x, y))) cells[y * maze.width + x] = 1;
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Histogram of route or tour lengths with power of two buckets: bucket b counts the lengths in [2^(b-1), 2^b),
+ * bucket 0 counts length 0. Recording is a single array increment.
+ */
+public class LengthHistogram {
+    private final long[] buckets = new long[64];
+    private long count;
+
+    /**
+     * Record a length.
+     * @param length The length, not negative.
+     */
+    public void record(long length) {
+        buckets[64 - Long.numberOfLeadingZeros(length)]++;
+        count++;
+    }
+
+    /**
+     * Number of recorded lengths.
+     * @return long The count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Number of recorded lengths in a bucket.
+     * @param bucket The bucket.
+     * @return long The count of the bucket.
+     */
+    public long getBucket(int bucket) {
+        return buckets[bucket];
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile.
+     * @param percentile The percentile, between 0 and 100.
+     * @return long The exclusive upper bound, 0 if nothing was recorded.
+     */
+    public long percentileUpperBound(double percentile) {
+        long rank = (long) Math.ceil(count * percentile / 100.0d);
+        long seen = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            seen += buckets[bucket];
+            if (seen >= rank && seen > 0) return bucket == 63 ? Long.MAX_VALUE : 1L << bucket;
+        }
+        return 0;
+    }
+
+    /**
+     * Non-empty buckets as "[lower,upper):count" pairs.
+     * @return String representation
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            if (buckets[bucket] == 0) continue;
+            if (sb.length() > 0) sb.append(' ');
+            sb.append('[').append(bucket == 0 ? 0 : 1L << (bucket - 1)).append(',')
+                    .append(bucket == 0 ? 1 : bucket == 63 ? Long.MAX_VALUE : 1L << bucket).append("):").append(buckets[bucket]);
+        }
+        return sb.toString();
+    }
+}
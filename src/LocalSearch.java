@@ -0,0 +1,341 @@
+import java.util.Arrays;
+
+/**
+ * Local search improving a product order with 2-opt and Or-opt moves. The path is open: it starts at the start
+ * point and ends at the end point of the TSPData, both of which stay fixed. Only moves towards the nearest
+ * neighbours of a product are tried, and products whose surroundings did not change are skipped (don't-look bits).
+ * Distances may be asymmetric. An instance keeps scratch arrays and statistics, so it is not thread-safe.
+ */
+public class LocalSearch {
+
+    /**
+     * The moves the local search applies.
+     */
+    public enum Mode { TWO_OPT, OR_OPT, TWO_AND_OR_OPT }
+
+    private static final int MAX_SEGMENT = 3;
+
+    private final ProductDistances pd;
+    private final Mode mode;
+    private final int n;
+    private final int startNode;
+    private final int endNode;
+    private final int[][] neighbours;
+
+    // tour[0] is the start node, tour[n + 1] the end node
+    private final int[] tour;
+    private final int[] position;
+    private final int[] segment;
+    // forward[k] is the length of tour[0..k], backward[k] the length of tour[1..k] walked in reverse
+    private final long[] forward;
+    private final long[] backward;
+    private final boolean[] dontLook;
+    private final int[] queue;
+    private int queueHead;
+    private int queueSize;
+
+    private long twoOptNanos;
+    private long orOptNanos;
+    private long twoOptMoves;
+    private long orOptMoves;
+    private long totalGain;
+
+    /**
+     * Constructor of the local search.
+     * @param pd The product distances.
+     * @param mode The moves to apply.
+     * @param neighbourCount Number of nearest neighbours considered per product.
+     */
+    public LocalSearch(ProductDistances pd, Mode mode, int neighbourCount) {
+        this.pd = pd;
+        this.mode = mode;
+        this.n = pd.size();
+        this.startNode = n;
+        this.endNode = n + 1;
+        this.neighbours = buildNeighbourLists(pd, Math.min(neighbourCount, n - 1));
+        this.tour = new int[n + 2];
+        this.position = new int[n];
+        this.segment = new int[MAX_SEGMENT];
+        this.forward = new long[n + 2];
+        this.backward = new long[n + 2];
+        this.dontLook = new boolean[n];
+        this.queue = new int[n];
+    }
+
+    /**
+     * Build for every product the list of its nearest neighbours, measured over both directions.
+     * @param pd The product distances.
+     * @param k Number of neighbours per product.
+     * @return int[][] The neighbour list of every product.
+     */
+    static int[][] buildNeighbourLists(ProductDistances pd, int k) {
+        int n = pd.size();
+        k = Math.max(k, 0);
+        int[][] lists = new int[n][k];
+        long[] nearest = new long[k];
+        for (int i = 0; i < n; i++) {
+            int count = 0;
+            for (int j = 0; j < n; j++) {
+                if (i == j) continue;
+                long key = (((long) pd.between(i, j) + pd.between(j, i)) << 32) | j;
+                if (count == k && (k == 0 || key >= nearest[k - 1])) continue;
+                // insertion into the sorted list of the k nearest so far
+                int slot = count < k ? count++ : k - 1;
+                while (slot > 0 && nearest[slot - 1] > key) {
+                    nearest[slot] = nearest[slot - 1];
+                    slot--;
+                }
+                nearest[slot] = key;
+            }
+            for (int j = 0; j < count; j++) {
+                lists[i][j] = (int) nearest[j];
+            }
+        }
+        return lists;
+    }
+
+    /**
+     * Improve a chromosome in place.
+     * @param chromosome The chromosome.
+     */
+    public void improve(Chromosome chromosome) {
+        int[] improved = improve(chromosome.getChromosome());
+        System.arraycopy(improved, 0, chromosome.getChromosome(), 0, improved.length);
+    }
+
+    /**
+     * Improve a product order until no improving move is left.
+     * @param order The product order.
+     * @return int[] The improved order, a new array.
+     */
+    public int[] improve(int[] order) {
+        return improve(order, order);
+    }
+
+    /**
+     * Improve a product order that is already locally optimal apart from the surroundings of a few products.
+     * @param order The product order.
+     * @param changed The products whose surroundings changed, the search starts from these.
+     * @return int[] The improved order, a new array.
+     */
+    public int[] improve(int[] order, int[] changed) {
+        if (n == 0) return new int[0];
+        tour[0] = startNode;
+        tour[n + 1] = endNode;
+        System.arraycopy(order, 0, tour, 1, n);
+        updatePositions(1, n);
+        updateLengths(0);
+        long before = forward[n + 1];
+
+        queueHead = 0;
+        queueSize = 0;
+        Arrays.fill(dontLook, true);
+        for (int product : changed) {
+            wake(product);
+        }
+
+        while (queueSize > 0) {
+            int product = queue[queueHead];
+            queueHead = (queueHead + 1) % n;
+            queueSize--;
+            dontLook[product] = true;
+
+            boolean improved = false;
+            if (mode != Mode.OR_OPT) {
+                long startTime = System.nanoTime();
+                improved = twoOpt(product);
+                twoOptNanos += System.nanoTime() - startTime;
+            }
+            if (!improved && mode != Mode.TWO_OPT) {
+                long startTime = System.nanoTime();
+                improved = orOpt(product);
+                orOptNanos += System.nanoTime() - startTime;
+            }
+            if (improved) wake(product);
+        }
+
+        totalGain += before - forward[n + 1];
+        return Arrays.copyOfRange(tour, 1, n + 1);
+    }
+
+    /**
+     * Try the 2-opt moves that connect a product to one of its neighbours. Applies the first improving move.
+     * @param product The product.
+     * @return boolean Whether the tour was improved.
+     */
+    private boolean twoOpt(int product) {
+        int i = position[product];
+        for (int neighbour : neighbours[product]) {
+            int j = position[neighbour];
+            int low = Math.min(i, j);
+            int high = Math.max(i, j);
+            if (tryReversal(low, high) || tryReversal(low - 1, high - 1)) {
+                twoOptMoves++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reverse tour[p+1..q] if that shortens the tour.
+     * @param p Position before the reversed segment.
+     * @param q Last position of the reversed segment.
+     * @return boolean Whether the reversal was applied.
+     */
+    private boolean tryReversal(int p, int q) {
+        if (p < 0 || q > n || q - p < 2) return false;
+        long delta = cost(tour[p], tour[q]) + cost(tour[p + 1], tour[q + 1])
+                - cost(tour[p], tour[p + 1]) - cost(tour[q], tour[q + 1])
+                + (backward[q] - backward[p + 1]) - (forward[q] - forward[p + 1]);
+        if (delta >= 0) return false;
+
+        for (int left = p + 1, right = q; left < right; left++, right--) {
+            int swap = tour[left];
+            tour[left] = tour[right];
+            tour[right] = swap;
+        }
+        updatePositions(p + 1, q);
+        updateLengths(p);
+        wake(tour[p]);
+        wake(tour[p + 1]);
+        wake(tour[q]);
+        wake(tour[q + 1]);
+        return true;
+    }
+
+    /**
+     * Try to move a segment of up to MAX_SEGMENT products starting at the product next to one of the
+     * neighbours of its first or last product, in either orientation. Applies the first improving move.
+     * @param product The first product of the segment.
+     * @return boolean Whether the tour was improved.
+     */
+    private boolean orOpt(int product) {
+        int i = position[product];
+        for (int length = 1; length <= MAX_SEGMENT && i + length - 1 <= n; length++) {
+            int last = i + length - 1;
+            // a segment of the whole tour has nowhere else to go
+            if (i == 1 && last == n) break;
+            int first = tour[i];
+            int tail = tour[last];
+            long removeGain = cost(tour[i - 1], first) + cost(tail, tour[last + 1]) - cost(tour[i - 1], tour[last + 1]);
+            if (removeGain <= 0) continue;
+            long reverseDelta = (backward[last] - backward[i]) - (forward[last] - forward[i]);
+
+            for (int end = 0; end < 2; end++) {
+                int[] candidates = neighbours[end == 0 ? first : tail];
+                for (int neighbour : candidates) {
+                    int j = position[neighbour];
+                    for (int k = j - 1; k <= j; k++) {
+                        if (k < 0 || k > n || (k >= i - 1 && k <= last)) continue;
+                        int u = tour[k];
+                        int v = tour[k + 1];
+                        long forwardAdd = cost(u, first) + cost(tail, v) - cost(u, v);
+                        long reverseAdd = cost(u, tail) + cost(first, v) - cost(u, v) + reverseDelta;
+                        if (forwardAdd < removeGain || reverseAdd < removeGain) {
+                            moveSegment(i, length, k, reverseAdd < forwardAdd);
+                            wake(first);
+                            wake(tail);
+                            wake(u);
+                            wake(v);
+                            orOptMoves++;
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Move the segment tour[i..i+length-1] between tour[k] and tour[k+1].
+     * @param i First position of the segment.
+     * @param length Length of the segment.
+     * @param k Position after which the segment is inserted, outside of the segment.
+     * @param reversed Whether the segment is inserted in reverse.
+     */
+    private void moveSegment(int i, int length, int k, boolean reversed) {
+        for (int s = 0; s < length; s++) {
+            segment[s] = reversed ? tour[i + length - 1 - s] : tour[i + s];
+        }
+        int from;
+        int to;
+        if (k > i) {
+            System.arraycopy(tour, i + length, tour, i, k - i - length + 1);
+            System.arraycopy(segment, 0, tour, k - length + 1, length);
+            from = i;
+            to = k;
+        } else {
+            System.arraycopy(tour, k + 1, tour, k + 1 + length, i - k - 1);
+            System.arraycopy(segment, 0, tour, k + 1, length);
+            from = k + 1;
+            to = i + length - 1;
+        }
+        updatePositions(from, to);
+        updateLengths(from - 1);
+    }
+
+    /**
+     * Distance between two nodes, where the start and end node map to the start and end distances. There is no
+     * distance from the start straight to the end, a tour always visits a product in between.
+     * @param from The node walked from.
+     * @param to The node walked to.
+     * @return long The distance.
+     */
+    private long cost(int from, int to) {
+        if (from == startNode && to == endNode) throw new IllegalStateException("No distance from the start to the end");
+        if (from == startNode) return pd.fromStart(to);
+        if (to == endNode) return pd.toEnd(from);
+        return pd.between(from, to);
+    }
+
+    /**
+     * Recompute the position index for a range of the tour.
+     * @param from First position.
+     * @param to Last position.
+     */
+    private void updatePositions(int from, int to) {
+        for (int k = from; k <= to; k++) {
+            position[tour[k]] = k;
+        }
+    }
+
+    /**
+     * Recompute the prefix lengths from a position on.
+     * @param from First position that changed.
+     */
+    private void updateLengths(int from) {
+        for (int k = Math.max(from, 0); k <= n; k++) {
+            forward[k + 1] = forward[k] + cost(tour[k], tour[k + 1]);
+            backward[k + 1] = backward[k] + (k >= 1 && k < n ? pd.between(tour[k + 1], tour[k]) : 0);
+        }
+    }
+
+    /**
+     * Clear the don't-look bit of a node and queue it.
+     * @param node The node, ignored for the start and end node.
+     */
+    private void wake(int node) {
+        if (node >= n || !dontLook[node]) return;
+        dontLook[node] = false;
+        queue[(queueHead + queueSize) % n] = node;
+        queueSize++;
+    }
+
+    public long getTwoOptNanos() { return twoOptNanos; }
+    public long getOrOptNanos() { return orOptNanos; }
+    public long getTwoOptMoves() { return twoOptMoves; }
+    public long getOrOptMoves() { return orOptMoves; }
+    public long getTotalGain() { return totalGain; }
+
+    /**
+     * Summary of the time spent and the gain achieved per stage.
+     * @return String representation
+     */
+    public String statsToString() {
+        return "[LocalSearch] 2-opt: " + twoOptMoves + " moves in " + (twoOptNanos / 1000000.0) + "ms" +
+                "\tOr-opt: " + orOptMoves + " moves in " + (orOptNanos / 1000000.0) + "ms" +
+                "\tTotal gain: " + totalGain;
+    }
+}
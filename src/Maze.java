@@ -1,7 +1,9 @@
 import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntFunction;
 
 /**
  * Class that holds all the maze data. This means the pheromones, the open and blocked tiles in the system as
@@ -11,8 +13,13 @@ public class Maze {
 
     public int width;
     public int length;
-    private int[][] walls;
-    public double[][] pheromones;
+    private WallBits walls;
+    private CellLayout layout;
+    // indexed by the slots of the layout
+    private PheromoneGrid pheromones;
+    private int[] routeSlots = new int[0];
+    private VisitStamps routeStamps;
+    private final Map<Route, Integer> distinctRoutes = new LinkedHashMap<>();
 
     /**
      * Constructor of a maze
@@ -21,12 +28,73 @@ public class Maze {
      * @param length length of Maze (vertical)
      */
     public Maze(int[][] walls, int width, int length, double initialPheromoneValue) {
+        this(flatten(walls, width, length), width, length, initialPheromoneValue);
+    }
+
+    /**
+     * Constructor of a maze from a flat wall grid.
+     * @param walls Tiles accessible (1) and non-accessible (0) in row-major order, index y * width + x
+     * @param width width of Maze (horizontal)
+     * @param length length of Maze (vertical)
+     */
+    public Maze(byte[] walls, int width, int length, double initialPheromoneValue) {
+        this(WallBits.fromCells(walls, width, length, false), HeapPheromoneGrid::new, initialPheromoneValue);
+    }
+
+    /**
+     * Constructor of a maze with a chosen storage, for example off-heap for mazes larger than the heap.
+     * @param walls The open and blocked tiles.
+     * @param storage Creates the pheromone grid for a number of cells.
+     * @param initialPheromoneValue The pheromone of the open tiles.
+     */
+    public Maze(WallBits walls, IntFunction<PheromoneGrid> storage, double initialPheromoneValue) {
+        this(walls, new RowMajorLayout(walls.getWidth(), walls.getLength()), storage, initialPheromoneValue);
+    }
+
+    /**
+     * Constructor of a maze with a chosen storage and cell layout, for example a SparseLayout to only store
+     * the open tiles.
+     * @param walls The open and blocked tiles.
+     * @param layout Maps the tiles to slots of the pheromone grid.
+     * @param storage Creates the pheromone grid for a number of slots.
+     * @param initialPheromoneValue The pheromone of the open tiles.
+     */
+    public Maze(WallBits walls, CellLayout layout, IntFunction<PheromoneGrid> storage, double initialPheromoneValue) {
         this.walls = walls;
-        this.length = length;
-        this.width = width;
+        this.layout = layout;
+        this.width = walls.getWidth();
+        this.length = walls.getLength();
+        this.pheromones = storage.apply(layout.size());
         initializePheromones(initialPheromoneValue);
     }
 
+    /**
+     * A maze sharing the walls and cell layout of this maze, with its own copy of the current pheromone. Several
+     * colonies can so search one maze while the walls are stored once.
+     * @param storage Creates the pheromone grid of the new maze for a number of slots.
+     * @return Maze The new maze.
+     */
+    public Maze withOwnPheromones(IntFunction<PheromoneGrid> storage) {
+        Maze maze = new Maze(walls, layout, storage, 0.0d);
+        double[] copy = new double[layout.size()];
+        pheromones.copyTo(copy);
+        maze.pheromones.copyFrom(copy);
+        return maze;
+    }
+
+    /**
+     * Convert a walls[x][y] grid to the flat row-major layout.
+     */
+    private static byte[] flatten(int[][] walls, int width, int length) {
+        byte[] flat = new byte[width * length];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < length; y++) {
+                flat[y * width + x] = (byte) walls[x][y];
+            }
+        }
+        return flat;
+    }
+
     /**
      * Initialize the maze to hold pheromoneValue in all accessible tiles.
      * This will exclude any accessible tile that is not at least surrounded by one wall.
@@ -36,24 +104,20 @@ public class Maze {
      */
     private void initializePheromones(double pheromoneValue) {
         long startTime = System.currentTimeMillis();
-        this.pheromones = new double[width][length];
-        for (int i = 0; i < pheromones.length; i++) {
-            for (int j = 0; j < pheromones[i].length; j++) {
-                if (walls[i][j] == 1) {
-                    pheromones[i][j] = pheromoneValue;
-                }
-            }
-        }
-        System.out.println("[Maze] Initialization completed!");
-        System.out.println("[Maze] Time taken: " + ((System.currentTimeMillis() - startTime) / 1000.0));
+        pheromones.fillOpen(walls, layout, pheromoneValue);
         if (AntColonyOptimization.DEBUG) {
+            System.out.println("[Maze] Initialization completed!");
+            System.out.println("[Maze] Time taken: " + ((System.currentTimeMillis() - startTime) / 1000.0));
             System.out.println("[Maze] Pheromone maze:");
             System.out.println(pheromonesToString());
         }
     }
 
     /**
-     * Update the pheromones along a certain route according to a certain Q
+     * Update the pheromones along a certain route according to a certain Q.
+     * A tile receives the pheromone once for every time the route leaves it. Routes that visit every tile at most
+     * once, like those of the ants, are deposited in one PheromoneGrid.addAll call; other routes fall back to one
+     * add per step.
      * @param r The route of the ants
      * @param Q Normalization factor for amount of dropped pheromone
      */
@@ -61,22 +125,46 @@ public class Maze {
         //Compute pheromone to add to each coordinate
         double newPheromone = Q/r.size();
 
+        if (routeSlots.length < r.size()) routeSlots = new int[r.size()];
+        if (routeStamps == null) routeStamps = new VisitStamps(layout.size());
+        routeStamps.next();
+        boolean simple = true;
+        int count = 0;
         Coordinate current = r.getStart(); //Begin at the start coordinate
         for (Direction dir : r.getRoute()) {
-            pheromones[current.getX()][current.getY()] += newPheromone; //Add the pheromone to the coordinate
+            int slot = layout.index(current.getX(), current.getY()); //Collect the tiles of the route
+            if (routeStamps.get(slot) != VisitStamps.NONE) simple = false;
+            routeStamps.set(slot, 0);
+            routeSlots[count++] = slot;
             current = current.add(dir); //Add the direction to the coordinate to get to a new coordinate
         }
+        if (simple) {
+            // addAll may gather and scatter, which needs every slot to occur once
+            pheromones.addAll(routeSlots, count, newPheromone);
+        } else {
+            for (int i = 0; i < count; i++) {
+                pheromones.add(routeSlots[i], newPheromone);
+            }
+        }
     }
 
     /**
-     * Update pheromones for a list of routes
+     * Update pheromones for a list of routes. Identical routes are found by their hash and deposited once with
+     * their combined amount, so a converged colony walks its route once instead of once per ant.
      * @param routes A list of routes
      * @param Q Normalization factor for amount of dropped pheromone
+     * @return int The number of distinct routes.
      */
-    public void addPheromoneRoutes(List<Route> routes, double Q) {
+    public int addPheromoneRoutes(List<Route> routes, double Q) {
         for (Route r : routes) {
-            addPheromoneRoute(r, Q);
+            distinctRoutes.merge(r, 1, Integer::sum);
         }
+        for (Map.Entry<Route, Integer> entry : distinctRoutes.entrySet()) {
+            addPheromoneRoute(entry.getKey(), Q * entry.getValue());
+        }
+        int distinct = distinctRoutes.size();
+        distinctRoutes.clear();
+        return distinct;
     }
 
     /**
@@ -84,13 +172,34 @@ public class Maze {
      * @param rho evaporation factor
      */
     public void evaporate(double rho) {
-    	for (int i = 0; i < pheromones.length; i++) {
-    		for (int j = 0; j < pheromones[i].length; j++) {
-    			pheromones[i][j] = (1 - rho) * pheromones[i][j];
-    		}
-    	}
+    	pheromones.scale(1 - rho);
     }
     
+    /**
+     * Clamp the pheromone of all tiles that have pheromone, as in MAX-MIN ant systems.
+     * @param min The lower bound.
+     * @param max The upper bound.
+     */
+    public void clampPheromones(double min, double max) {
+        pheromones.clamp(min, max);
+    }
+
+    /**
+     * Copy the pheromone of all slots, used to checkpoint a run.
+     * @param target Receives the pheromone per slot, at least getCellCount() long.
+     */
+    public void copyPheromones(double[] target) {
+        pheromones.copyTo(target);
+    }
+
+    /**
+     * Replace the pheromone of all slots, used to resume a run from a checkpoint.
+     * @param source The pheromone per slot, at least getCellCount() long.
+     */
+    public void restorePheromones(double[] source) {
+        pheromones.copyFrom(source);
+    }
+
     /**
      * Check passability of tile.
      * @param coordinate The coordinate.
@@ -98,7 +207,7 @@ public class Maze {
      */
     public boolean isPassable(Coordinate coordinate) {
     	if (inBounds(coordinate)) {
-    		return (walls[coordinate.getX()][coordinate.getY()] == 1);
+    		return walls.isOpen(coordinate.getX(), coordinate.getY());
     	}
     	return false;
     }
@@ -109,14 +218,25 @@ public class Maze {
      * @return the pheromones of the neighbouring positions.
      */
     public SurroundingPheromone getSurroundingPheromone(Coordinate position) {
-        double north = getPheromone(position.add(Direction.North));
-        double south = getPheromone(position.add(Direction.South));
-        double east = getPheromone(position.add(Direction.East));
-        double west = getPheromone(position.add(Direction.West));
+        if (!inBounds(position)) {
+            return new SurroundingPheromone(getPheromone(position.add(Direction.North)), getPheromone(position.add(Direction.East)),
+                    getPheromone(position.add(Direction.South)), getPheromone(position.add(Direction.West)));
+        }
+        int x = position.getX();
+        int y = position.getY();
+        int index = layout.index(x, y);
+        double north = slotPheromone(layout.neighbour(index, x, y, Direction.North, width, length));
+        double south = slotPheromone(layout.neighbour(index, x, y, Direction.South, width, length));
+        double east = slotPheromone(layout.neighbour(index, x, y, Direction.East, width, length));
+        double west = slotPheromone(layout.neighbour(index, x, y, Direction.West, width, length));
 
         return new SurroundingPheromone(north, east, south, west);
     }
 
+    private double slotPheromone(int slot) {
+        return slot < 0 ? 0.0d : pheromones.get(slot);
+    }
+
     /**
      * Pheromone getter for a specific position. If the position is not in bounds returns 0
      * @param pos Position coordinate
@@ -124,12 +244,47 @@ public class Maze {
      */
     public double getPheromone(Coordinate pos) {
     	if (inBounds(pos)) {
-    		return pheromones[pos.getX()][pos.getY()];
+    		return slotPheromone(layout.index(pos.getX(), pos.getY()));
     	} else {
     		return 0.0d;
     	}
     }
 
+    /**
+     * Pheromone of every tile as a [x][y] grid, the way the former public pheromones field held it. Tiles the
+     * cell layout has no slot for hold 0.
+     * @return double[][] A copy of the pheromone, changing it does not change the maze.
+     * @deprecated The pheromone is kept in a {@link PheromoneGrid}, use {@link #getPheromone(Coordinate)} or
+     * {@link #copyPheromones(double[])} instead.
+     */
+    @Deprecated
+    public double[][] getPheromones() {
+        double[][] grid = new double[width][length];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < length; y++) {
+                grid[x][y] = slotPheromone(layout.index(x, y));
+            }
+        }
+        return grid;
+    }
+
+
+    /**
+     * Slot of a tile, used by the ants to keep their visited flags in an array as small as the pheromone grid.
+     * @param position A position inside the maze.
+     * @return int The slot, -1 if the layout has no slot for the tile.
+     */
+    public int getCellIndex(Coordinate position) {
+        return layout.index(position.getX(), position.getY());
+    }
+
+    /**
+     * Number of slots of the cell layout.
+     * @return int The number of slots.
+     */
+    public int getCellCount() {
+        return layout.size();
+    }
 
     /**
      * Check whether a coordinate lies in the current maze.
@@ -152,7 +307,7 @@ public class Maze {
         sb.append(" \n");
         for (int y = 0; y < length; y++) {
             for (int x = 0; x < width; x++ ) {
-                if (pheromones[x][y]!=0) {
+                if (slotPheromone(layout.index(x, y))!=0) {
                     sb.append("X");
                 } else {
                     sb.append(" ");
@@ -177,7 +332,7 @@ public class Maze {
         sb.append(" \n");
         for (int y = 0; y < length; y++) {
             for (int x = 0; x < width; x++ ) {
-                sb.append(walls[x][y]);
+                sb.append(walls.isOpen(x, y) ? 1 : 0);
                 sb.append(' ');
             }
             sb.append("\n");
@@ -191,16 +346,27 @@ public class Maze {
      * @return A maze object with pheromones initialized to 0's inaccessible and 1's accessible.
      */
     public static Maze createMaze(String filePath, double initialPheromoneValue) throws FileNotFoundException {
-        Scanner scan = new Scanner(new FileReader(filePath));
-        int width = scan.nextInt();
-        int length = scan.nextInt();
-        int[][] mazeLayout = new int[width][length];
-        for (int y = 0; y < length; y++) {
-            for (int x = 0; x < width; x++) {
-                mazeLayout[x][y] = scan.nextInt();
-            }
+        return createMaze(filePath, initialPheromoneValue, false);
+    }
+
+    /**
+     * Method that builds a mze from a file, optionally keeping walls and pheromones outside the heap.
+     * @param filePath Path to the file
+     * @param offHeap Whether to store walls and pheromones in direct buffers.
+     * @return A maze object with pheromones initialized to 0's inaccessible and 1's accessible.
+     */
+    public static Maze createMaze(String filePath, double initialPheromoneValue, boolean offHeap) throws FileNotFoundException {
+        TextParser parser = new TextParser(filePath, "");
+        int width = parser.nextInt();
+        int length = parser.nextInt();
+        WallBits walls = new WallBits(width, length, offHeap);
+        for (int cell = 0; cell < width * length; cell++) {
+            if (parser.nextInt() == 1) walls.setOpen(cell);
+        }
+        if (AntColonyOptimization.DEBUG) {
+            System.out.println(String.format(Locale.ROOT, "[Maze] Parsed %d cells at %.1f MB/s",
+                    width * length, parser.getThroughput()));
         }
-        scan.close();
-        return new Maze(mazeLayout, width, length, initialPheromoneValue);
+        return new Maze(walls, offHeap ? OffHeapPheromoneGrid::new : HeapPheromoneGrid::new, initialPheromoneValue);
     }
 }
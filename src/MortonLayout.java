@@ -0,0 +1,36 @@
+/**
+ * Slots in Z-order (Morton order): the bits of x and y are interleaved, so tiles that are close in both
+ * directions are close in memory and a north or south step usually stays within a few cache lines. The slots
+ * cover the smallest power of two square around the maze, so very elongated mazes waste slots; TiledLayout
+ * suits those better.
+ */
+public class MortonLayout implements CellLayout {
+    private final int size;
+
+    public MortonLayout(int width, int length) {
+        int side = Integer.highestOneBit(Math.max(1, Math.max(width, length) - 1)) << 1;
+        if (side > 1 << 15) throw new IllegalArgumentException("Maze too large for a Morton layout");
+        this.size = Math.max(1, side * side);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int index(int x, int y) {
+        return spread(x) | spread(y) << 1;
+    }
+
+    /**
+     * Spread the lower 16 bits of a value over the even bits.
+     */
+    private static int spread(int value) {
+        value = (value | value << 8) & 0x00FF00FF;
+        value = (value | value << 4) & 0x0F0F0F0F;
+        value = (value | value << 2) & 0x33333333;
+        value = (value | value << 1) & 0x55555555;
+        return value;
+    }
+}
@@ -0,0 +1,203 @@
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Path solver running several independent ant colonies on separate threads. Every colony has its own pheromone
+ * grid on the walls and cell layout of one shared maze, so a colony that locks onto a corridor early does not
+ * drag the others along. The colonies run exchangeInterval generations in parallel, after which every colony
+ * takes pheromone information from its neighbour in a ring and the next round starts.
+ */
+public class MultiColonyOptimization implements PathSolver {
+
+    /**
+     * What the colonies exchange after every round.
+     *      BEST_ROUTE: colony i deposits the best route of colony i-1 once more on its own grid.
+     *      BLEND: the pheromone of colony i moves a fraction blendWeight towards the pheromone of colony i-1.
+     */
+    public enum Exchange { BEST_ROUTE, BLEND }
+
+    private final Maze maze;
+    private final int colonies;
+    private final int antsPerGeneration;
+    private final int numberOfGenerations;
+    private final double qualityFactor;
+    private final double evaporationFactor;
+    private final int exchangeInterval;
+    private final Exchange exchange;
+    private double blendWeight = 0.2d;
+    private IntFunction<PheromoneGrid> storage = HeapPheromoneGrid::new;
+    public static boolean DEBUG = false;
+
+    /**
+     * Constructor of the colonies.
+     * @param maze The maze, used by the first colony; the other colonies start with a copy of its pheromone.
+     * @param colonies Number of colonies, each run on its own thread, at least 1.
+     * @param antsPerGeneration Number of ants per generation of a single colony.
+     * @param numberOfGenerations Number of generations every colony runs.
+     * @param qualityFactor Normalization factor for amount of dropped pheromone.
+     * @param evaporationFactor Evaporation factor.
+     * @param exchangeInterval Number of generations between two exchanges, at least 1.
+     * @param exchange What the colonies exchange.
+     */
+    public MultiColonyOptimization(Maze maze, int colonies, int antsPerGeneration, int numberOfGenerations,
+                                   double qualityFactor, double evaporationFactor, int exchangeInterval, Exchange exchange) {
+        if (colonies < 1) throw new IllegalArgumentException("At least one colony is needed, not " + colonies);
+        if (exchangeInterval < 1) throw new IllegalArgumentException("Exchange interval must be at least 1, not " + exchangeInterval);
+        this.maze = maze;
+        this.colonies = colonies;
+        this.antsPerGeneration = antsPerGeneration;
+        this.numberOfGenerations = numberOfGenerations;
+        this.qualityFactor = qualityFactor;
+        this.evaporationFactor = evaporationFactor;
+        this.exchangeInterval = exchangeInterval;
+        this.exchange = exchange;
+    }
+
+    /**
+     * Set how far a colony moves towards its neighbour with Exchange.BLEND.
+     * @param blendWeight The fraction of the neighbour's pheromone, between 0 and 1.
+     */
+    public void setBlendWeight(double blendWeight) {
+        this.blendWeight = blendWeight;
+    }
+
+    /**
+     * Set the pheromone grid of the colonies after the first, which uses the grid of the maze. The default is a
+     * HeapPheromoneGrid; pass the storage the maze was built with, for example FloatPheromoneGrid::new, to keep
+     * all colonies at the same precision.
+     * @param storage Creates the pheromone grid of a colony for a number of slots.
+     */
+    public void setColonyStorage(IntFunction<PheromoneGrid> storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Finds the shortest route with all colonies, with a random seed.
+     * @param spec {@link PathSpecification} of the route we wish to optimize.
+     * @return The shortest {@link Route} of all colonies.
+     */
+    public Route findShortestRoute(PathSpecification spec) {
+        return findShortestRoute(spec, new Random().nextLong(), null);
+    }
+
+    @Override
+    public Route findShortestRoute(PathSpecification spec, long seed, SolverProgress progress) {
+        List<AntColonyOptimization> colony = new ArrayList<>();
+        Route[] best = new Route[colonies];
+        for (int i = 0; i < colonies; i++) {
+            Maze colonyMaze = i == 0 ? maze : maze.withOwnPheromones(storage);
+            colony.add(new AntColonyOptimization(colonyMaze, antsPerGeneration, numberOfGenerations, qualityFactor, evaporationFactor));
+            best[i] = colony.get(i).start(spec, seed + i);
+        }
+        Route shortestRoute = shortest(best);
+        if (progress != null) progress.improved(shortestRoute.size());
+
+        ExecutorService executor = Executors.newFixedThreadPool(colonies);
+        try {
+            for (int first = 1; first <= numberOfGenerations; first += exchangeInterval) {
+                final int from = first;
+                final int to = Math.min(first + exchangeInterval - 1, numberOfGenerations);
+                List<Callable<Route>> rounds = new ArrayList<>();
+                for (int i = 0; i < colonies; i++) {
+                    final int index = i;
+                    rounds.add(() -> colony.get(index).runGenerations(spec, best[index], from, to));
+                }
+                List<Future<Route>> results = executor.invokeAll(rounds);
+                for (int i = 0; i < colonies; i++) {
+                    best[i] = results.get(i).get();
+                }
+                Route roundBest = shortest(best);
+                if (roundBest.shorterThan(shortestRoute)) {
+                    shortestRoute = roundBest;
+                    if (progress != null) progress.improved(shortestRoute.size());
+                }
+                if (DEBUG) System.out.println("[Colonies] Generation " + to + "\tShortest: " + shortestRoute.size());
+                if (colonies > 1 && to < numberOfGenerations) exchange(colony, best);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for colonies", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Colony failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return shortestRoute;
+    }
+
+    /**
+     * Let every colony take information from its neighbour in the ring. Runs between two rounds, so no colony
+     * is walking.
+     * @param colony The colonies.
+     * @param best The best route of every colony.
+     */
+    private void exchange(List<AntColonyOptimization> colony, Route[] best) {
+        if (exchange == Exchange.BEST_ROUTE) {
+            for (int i = 0; i < colonies; i++) {
+                colony.get(i).getMaze().addPheromoneRoute(best[(i + colonies - 1) % colonies], qualityFactor);
+            }
+            return;
+        }
+        int cells = maze.getCellCount();
+        double[][] pheromones = new double[colonies][cells];
+        for (int i = 0; i < colonies; i++) {
+            colony.get(i).getMaze().copyPheromones(pheromones[i]);
+        }
+        double[] blended = new double[cells];
+        for (int i = 0; i < colonies; i++) {
+            double[] own = pheromones[i];
+            double[] neighbour = pheromones[(i + colonies - 1) % colonies];
+            for (int cell = 0; cell < cells; cell++) {
+                blended[cell] = (1 - blendWeight) * own[cell] + blendWeight * neighbour[cell];
+            }
+            colony.get(i).getMaze().restorePheromones(blended);
+        }
+    }
+
+    private static Route shortest(Route[] routes) {
+        Route shortest = routes[0];
+        for (Route route : routes) {
+            if (route.shorterThan(shortest)) shortest = route;
+        }
+        return shortest;
+    }
+
+    /**
+     * Driver comparing a single colony with one colony per core, both running the same number of generations.
+     */
+    public static void main(String[] args) throws FileNotFoundException {
+        String mazeName = args.length > 0 ? args[0] : "insane";
+        int colonies = Runtime.getRuntime().availableProcessors();
+        int antsPerGeneration = 25;
+        int numberOfGenerations = 100;
+        double qualityFactor = 1000;
+        double initialPheromoneValue = 1000;
+        double evaporationFactor = 0.1;
+        int exchangeInterval = 10;
+        PathSpecification spec = PathSpecification.readCoordinates("./data/"+mazeName+" coordinates.txt");
+        long seed = new Random().nextLong();
+
+        Maze single = Maze.createMaze("./data/"+mazeName+" maze.txt", initialPheromoneValue);
+        long startTime = System.currentTimeMillis();
+        Route singleRoute = new AntColonyOptimization(single, antsPerGeneration, numberOfGenerations, qualityFactor,
+                evaporationFactor).findShortestRoute(spec, seed, null);
+        System.out.println("1 colony: " + singleRoute.size() + " in " + ((System.currentTimeMillis() - startTime) / 1000.0) + " Seconds");
+
+        for (Exchange exchange : Exchange.values()) {
+            Maze shared = Maze.createMaze("./data/"+mazeName+" maze.txt", initialPheromoneValue);
+            startTime = System.currentTimeMillis();
+            Route route = new MultiColonyOptimization(shared, colonies, antsPerGeneration, numberOfGenerations, qualityFactor,
+                    evaporationFactor, exchangeInterval, exchange).findShortestRoute(spec, seed, null);
+            System.out.println(colonies + " colonies, " + exchange + ": " + route.size() + " in "
+                    + ((System.currentTimeMillis() - startTime) / 1000.0) + " Seconds");
+        }
+    }
+}
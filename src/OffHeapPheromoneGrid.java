@@ -0,0 +1,104 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Pheromones as doubles outside the heap, in direct buffers or in a memory-mapped file. A buffer holds at most
+ * 2GB, so the grid is split into chunks of CHUNK_CELLS cells. The heap only holds the buffer objects, so even
+ * the largest mazes add nothing for the garbage collector to scan.
+ */
+public class OffHeapPheromoneGrid implements PheromoneGrid {
+    private static final int CHUNK_BITS = 27;
+    private static final int CHUNK_CELLS = 1 << CHUNK_BITS;
+
+    private final ByteBuffer[] chunks;
+    private final int cells;
+
+    /**
+     * Constructor of an empty grid in direct buffers.
+     * @param cells Number of cells.
+     */
+    public OffHeapPheromoneGrid(int cells) {
+        this.cells = cells;
+        this.chunks = new ByteBuffer[chunkCount(cells)];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(chunkCells(i) * 8).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    private OffHeapPheromoneGrid(ByteBuffer[] chunks, int cells) {
+        this.chunks = chunks;
+        this.cells = cells;
+    }
+
+    /**
+     * Create a grid backed by a file, so the operating system can page it out. Existing file contents are
+     * overwritten.
+     * @param filePath Path to the backing file.
+     * @param cells Number of cells.
+     * @return OffHeapPheromoneGrid The grid.
+     */
+    public static OffHeapPheromoneGrid mapped(String filePath, int cells) {
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(cells)];
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "rw")) {
+            file.setLength(cells * 8L);
+            FileChannel channel = file.getChannel();
+            for (int i = 0; i < chunks.length; i++) {
+                chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * CHUNK_CELLS * 8, chunkCells(cells, i) * 8L)
+                        .order(ByteOrder.nativeOrder());
+                for (int offset = 0; offset < chunks[i].capacity(); offset += 8) {
+                    chunks[i].putDouble(offset, 0.0d);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new OffHeapPheromoneGrid(chunks, cells);
+    }
+
+    private static int chunkCount(int cells) {
+        return Math.max(1, (cells + CHUNK_CELLS - 1) >>> CHUNK_BITS);
+    }
+
+    private static int chunkCells(int cells, int chunk) {
+        return Math.min(CHUNK_CELLS, cells - chunk * CHUNK_CELLS);
+    }
+
+    private int chunkCells(int chunk) {
+        return chunkCells(cells, chunk);
+    }
+
+    @Override
+    public int size() {
+        return cells;
+    }
+
+    @Override
+    public double get(int cell) {
+        return chunks[cell >>> CHUNK_BITS].getDouble((cell & (CHUNK_CELLS - 1)) << 3);
+    }
+
+    @Override
+    public void set(int cell, double value) {
+        chunks[cell >>> CHUNK_BITS].putDouble((cell & (CHUNK_CELLS - 1)) << 3, value);
+    }
+
+    @Override
+    public void add(int cell, double amount) {
+        ByteBuffer chunk = chunks[cell >>> CHUNK_BITS];
+        int offset = (cell & (CHUNK_CELLS - 1)) << 3;
+        chunk.putDouble(offset, chunk.getDouble(offset) + amount);
+    }
+
+    @Override
+    public void scale(double factor) {
+        for (ByteBuffer chunk : chunks) {
+            for (int offset = 0; offset < chunk.capacity(); offset += 8) {
+                chunk.putDouble(offset, chunk.getDouble(offset) * factor);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * Common interface of the solvers for the shortest path through a maze.
+ */
+public interface PathSolver {
+
+    /**
+     * Find a short route between the start and end coordinate of a path specification.
+     * @param spec The path specification.
+     * @param seed Seed for all randomness of the run, so runs can be repeated.
+     * @param progress Receives every improvement of the shortest route, may be null.
+     * @return The route found.
+     */
+    Route findShortestRoute(PathSpecification spec, long seed, SolverProgress progress);
+}
@@ -1,8 +1,5 @@
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.Serializable;
-import java.util.Scanner;
-import java.util.regex.Pattern;
 
 /**
  * Specification of a path containing a start and end coordinate.
@@ -62,12 +59,11 @@ public class PathSpecification implements Serializable{
      * @return Specification contained in the file
      */
     public static PathSpecification readCoordinates(String filePath) throws FileNotFoundException {
-        Scanner scan = new Scanner(new FileReader(filePath));
-        scan.useDelimiter(Pattern.compile("[,;]\\s*"));
-        int startX = scan.nextInt();
-        int startY = scan.nextInt();
-        int endX = scan.nextInt();
-        int endY = scan.nextInt();
+        TextParser parser = new TextParser(filePath, ",;");
+        int startX = parser.nextInt();
+        int startY = parser.nextInt();
+        int endX = parser.nextInt();
+        int endY = parser.nextInt();
         Coordinate start = new Coordinate(startX, startY);
         Coordinate end = new Coordinate(endX, endY);
         return new PathSpecification(start, end);
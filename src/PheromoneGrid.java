@@ -0,0 +1,97 @@
+/**
+ * Storage of the pheromone of every cell of a maze, indexed by cell. Implementations differ in where and with
+ * which precision the values are kept; Maze only uses this interface.
+ */
+public interface PheromoneGrid {
+
+    /**
+     * Number of cells.
+     * @return int The number of cells.
+     */
+    int size();
+
+    /**
+     * Pheromone of a cell.
+     * @param cell The cell index.
+     * @return double The pheromone.
+     */
+    double get(int cell);
+
+    /**
+     * Set the pheromone of a cell.
+     * @param cell The cell index.
+     * @param value The pheromone.
+     */
+    void set(int cell, double value);
+
+    /**
+     * Add pheromone to a cell.
+     * @param cell The cell index.
+     * @param amount The pheromone to add.
+     */
+    void add(int cell, double amount);
+
+    /**
+     * Multiply the pheromone of all cells, used for evaporation.
+     * @param factor The factor.
+     */
+    void scale(double factor);
+
+    /**
+     * Set the pheromone of every open tile.
+     * @param walls The walls of the maze.
+     * @param layout The layout mapping tiles to cells of this grid.
+     * @param value The pheromone.
+     */
+    default void fillOpen(WallBits walls, CellLayout layout, double value) {
+        for (int y = 0; y < walls.getLength(); y++) {
+            for (int x = 0; x < walls.getWidth(); x++) {
+                if (walls.isOpen(x, y)) set(layout.index(x, y), value);
+            }
+        }
+    }
+
+    /**
+     * Clamp the pheromone of every cell that has pheromone to [min, max].
+     * @param min The lower bound.
+     * @param max The upper bound.
+     */
+    default void clamp(double min, double max) {
+        for (int cell = 0; cell < size(); cell++) {
+            double value = get(cell);
+            if (value != 0) set(cell, Math.max(min, Math.min(max, value)));
+        }
+    }
+
+    /**
+     * Add the same amount of pheromone to a number of distinct cells.
+     * @param cells The cells, no cell may occur twice.
+     * @param count Number of cells to use.
+     * @param amount The pheromone to add.
+     */
+    default void addAll(int[] cells, int count, double amount) {
+        for (int i = 0; i < count; i++) {
+            add(cells[i], amount);
+        }
+    }
+
+    /**
+     * Copy the pheromone of all cells, for example to write a snapshot while the grid keeps changing.
+     * @param target Receives the pheromone of cell i at index i, at least size() long.
+     */
+    default void copyTo(double[] target) {
+        for (int cell = 0; cell < size(); cell++) {
+            target[cell] = get(cell);
+        }
+    }
+
+    /**
+     * Replace the pheromone of all cells.
+     * @param source The pheromone of cell i at index i, at least size() long.
+     */
+    default void copyFrom(double[] source) {
+        for (int cell = 0; cell < size(); cell++) {
+            set(cell, source[cell]);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Bulk operations over a flat double pheromone grid. The vectorised implementation (VectorPheromoneKernels in
+ * vector/) needs the incubating Vector API, so it is loaded by name and only used when it is on the classpath
+ * and the JVM runs with --add-modules jdk.incubator.vector; otherwise the scalar kernels are used.
+ * Run with -Dpheromone.kernels=scalar to force the scalar kernels.
+ */
+public interface PheromoneKernels {
+
+    /**
+     * Multiply all values.
+     * @param values The grid.
+     * @param factor The factor.
+     */
+    void scale(double[] values, double factor);
+
+    /**
+     * Set every value whose cell is open, with slots in row-major order.
+     * @param values The grid, slot y * width + x.
+     * @param walls The walls, one bit per slot.
+     * @param value The value.
+     */
+    void fillOpen(double[] values, WallBits walls, double value);
+
+    /**
+     * Clamp every non-zero value to [min, max], zero values stay zero.
+     * @param values The grid.
+     * @param min The lower bound.
+     * @param max The upper bound.
+     */
+    void clamp(double[] values, double min, double max);
+
+    /**
+     * Add an amount to a number of distinct slots.
+     * @param values The grid.
+     * @param slots The slots, no slot may occur twice.
+     * @param count Number of slots to use.
+     * @param amount The amount.
+     */
+    void deposit(double[] values, int[] slots, int count, double amount);
+
+    /**
+     * Name of the implementation.
+     * @return String The name.
+     */
+    String name();
+
+    /**
+     * The fastest kernels available in this JVM.
+     * @return PheromoneKernels The kernels.
+     */
+    static PheromoneKernels get() {
+        return ScalarPheromoneKernels.Holder.KERNELS;
+    }
+}
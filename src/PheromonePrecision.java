@@ -0,0 +1,45 @@
+/**
+ * Precision of the pheromone grid of a Maze. Use as storage, e.g. new Maze(walls, PheromonePrecision.FLOAT::create, 1000).
+ *      DOUBLE: 8 bytes per cell, the reference.
+ *      FLOAT: 4 bytes per cell.
+ *      FIXED_32: 4 bytes per cell, fixed point with a shared scale.
+ *      FIXED_16: 2 bytes per cell, fixed point with a shared scale.
+ */
+public enum PheromonePrecision {
+    DOUBLE, FLOAT, FIXED_32, FIXED_16;
+
+    /**
+     * Create an empty grid of this precision.
+     * @param cells Number of cells.
+     * @return PheromoneGrid The grid.
+     */
+    public PheromoneGrid create(int cells) {
+        switch (this) {
+            case DOUBLE:
+                return new HeapPheromoneGrid(cells);
+            case FLOAT:
+                return new FloatPheromoneGrid(cells);
+            case FIXED_32:
+                return new FixedPointPheromoneGrid(cells, 32);
+            case FIXED_16:
+                return new FixedPointPheromoneGrid(cells, 16);
+            default:
+                throw new IllegalArgumentException("Case statement does not match all possible values");
+        }
+    }
+
+    /**
+     * Bytes per cell of the grid.
+     * @return int The number of bytes.
+     */
+    public int bytesPerCell() {
+        switch (this) {
+            case DOUBLE:
+                return 8;
+            case FIXED_16:
+                return 2;
+            default:
+                return 4;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Compares the route quality and speed of the path solver for every pheromone precision against the double
+ * grid, over the same mazes and seeds.
+ * Usage: PrecisionReport [data directory]
+ */
+public class PrecisionReport {
+    private static final String[] MAZES = {"easy", "medium", "hard"};
+    private static final long[] SEEDS = {1, 2, 3, 4, 5};
+
+    public static void main(String[] args) throws IOException {
+        String dataDirectory = args.length > 0 ? args[0] : "./data";
+        System.out.println("maze\tprecision\tgrid_kb\tmean_route\tbest_route\tmean_ms\tvs_double");
+        for (String name : MAZES) {
+            PathSpecification spec = PathSpecification.readCoordinates(dataDirectory + "/" + name + " coordinates.txt");
+            CompiledMaze.compile(dataDirectory + "/" + name + " maze.txt", "./tmp/" + name + " maze.bin", false);
+            double reference = 0;
+            for (PheromonePrecision precision : PheromonePrecision.values()) {
+                long total = 0;
+                long best = Long.MAX_VALUE;
+                long nanos = 0;
+                int cells = 0;
+                for (long seed : SEEDS) {
+                    Maze maze = CompiledMaze.open("./tmp/" + name + " maze.bin").toMaze(precision::create, 1000);
+                    cells = maze.width * maze.length;
+                    long startTime = System.nanoTime();
+                    Route route = new AntColonyOptimization(maze, 10, 20, 1000, 0.1d).findShortestRoute(spec, seed, null);
+                    nanos += System.nanoTime() - startTime;
+                    total += route.size();
+                    best = Math.min(best, route.size());
+                }
+                double mean = total / (double) SEEDS.length;
+                if (precision == PheromonePrecision.DOUBLE) reference = mean;
+                System.out.println(String.format(Locale.ROOT, "%s\t%s\t%d\t%.1f\t%d\t%.1f\t%+.2f%%", name, precision,
+                        (long) cells * precision.bytesPerCell() / 1024, mean, best, nanos / 1e6 / SEEDS.length,
+                        (mean / reference - 1) * 100));
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Read-only view of the product distances of a TSPData object. Product indices run from 0 to size()-1, the start
+ * and end point of the open path are implicit. A view can cover a subset of the products, for example the
+ * products of one pick list; it then maps its indices to the products of the full matrix without copying.
+ */
+public class ProductDistances {
+    private final int[][] distances;
+    private final int[] startDistances;
+    private final int[] endDistances;
+    // products of the full matrix covered by this view, null when the view covers all of them
+    private final int[] products;
+
+    /**
+     * Constructor taking the distance arrays of a TSPData object. The arrays are not copied.
+     * @param tsp The TSPData.
+     */
+    public ProductDistances(TSPData tsp) {
+        this(tsp.getDistances(), tsp.getStartDistances(), tsp.getEndDistances());
+    }
+
+    /**
+     * Constructor taking the distance arrays directly. The arrays are not copied.
+     * @param distances product to product distances
+     * @param startDistances start to product distances
+     * @param endDistances product to end distances
+     */
+    public ProductDistances(int[][] distances, int[] startDistances, int[] endDistances) {
+        this(distances, startDistances, endDistances, null);
+    }
+
+    private ProductDistances(int[][] distances, int[] startDistances, int[] endDistances, int[] products) {
+        this.distances = distances;
+        this.startDistances = startDistances;
+        this.endDistances = endDistances;
+        this.products = products;
+    }
+
+    /**
+     * View on a subset of the products, sharing the distance arrays of this view.
+     * @param subset Indices of products of this view, product i of the new view is product subset[i] of this one.
+     * @return ProductDistances The view.
+     */
+    public ProductDistances subset(int[] subset) {
+        int[] mapped = new int[subset.length];
+        for (int i = 0; i < subset.length; i++) {
+            mapped[i] = product(subset[i]);
+        }
+        return new ProductDistances(distances, startDistances, endDistances, mapped);
+    }
+
+    /**
+     * Index of a product of this view in the full distance matrix.
+     * @param product product index of this view
+     * @return int The product index in the full matrix.
+     */
+    public int product(int product) {
+        return products == null ? product : products[product];
+    }
+
+    /**
+     * Number of products
+     * @return number of products
+     */
+    public int size() {
+        return products == null ? startDistances.length : products.length;
+    }
+
+    /**
+     * Distance from one product to another
+     * @param from product index
+     * @param to product index
+     * @return distance
+     */
+    public int between(int from, int to) {
+        return products == null ? distances[from][to] : distances[products[from]][products[to]];
+    }
+
+    /**
+     * Distance from the start to a product
+     * @param product product index
+     * @return distance
+     */
+    public int fromStart(int product) {
+        return startDistances[product(product)];
+    }
+
+    /**
+     * Distance from a product to the end
+     * @param product product index
+     * @return distance
+     */
+    public int toEnd(int product) {
+        return endDistances[product(product)];
+    }
+
+    /**
+     * Total length of the path from the start via all products in order to the end.
+     * @param order The product order.
+     * @return long The total length.
+     */
+    public long length(int[] order) {
+        long total = fromStart(order[0]);
+        for (int i = 0; i < order.length - 1; i++) {
+            total += between(order[i], order[i + 1]);
+        }
+        return total + toEnd(order[order.length - 1]);
+    }
+}
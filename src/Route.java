@@ -1,5 +1,6 @@
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 
@@ -8,8 +9,13 @@ import java.util.ArrayList;
  */
 public class Route implements Serializable {
     private static final long serialVersionUID = 0L;
+    // odd, so multiplication can be undone modulo 2^64
+    private static final long HASH_BASE = 0x9E3779B97F4A7C15L;
+    private static final long HASH_BASE_INVERSE = inverse(HASH_BASE);
     private ArrayList<Direction> route;
     private Coordinate start;
+    // rolling hash of the directions: hash * HASH_BASE + ordinal + 1 per step, kept up to date by add and removeLast
+    private transient long directionHash;
 
     /**
      * Route takes a starting coordinate to initialize
@@ -31,17 +37,57 @@ public class Route implements Serializable {
             return false;
         } else {
             Route otherR = (Route) other;
-            return this.start.equals(otherR.start)
+            return this.directionHash == otherR.directionHash
+                    && this.start.equals(otherR.start)
                     && this.route.equals(otherR.route);
         }
     }
 
+    /**
+     * 64-bit hash of the start and the directions, updated in constant time per step.
+     * @return long The hash.
+     */
+    public long getHash() {
+        return (directionHash * 31 + start.getX()) * 31 + start.getY();
+    }
+
+    /**
+     * Hash code for route, consistent with equals
+     * @return int The hash code.
+     */
+    public int hashCode() {
+        long hash = getHash();
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Multiplicative inverse of an odd number modulo 2^64, by Newton iteration.
+     */
+    private static long inverse(long odd) {
+        long inverse = odd;
+        for (int i = 0; i < 5; i++) {
+            inverse *= 2 - odd * inverse;
+        }
+        return inverse;
+    }
+
+    /**
+     * Rebuild the hash, which is not serialised.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        for (Direction dir : route) {
+            directionHash = directionHash * HASH_BASE + dir.ordinal() + 1;
+        }
+    }
+
     /**
      * After taking a step we add the direction we moved in
      * @param dir Direction we moved in
      */
     public void add(Direction dir) {
         route.add(dir);
+        directionHash = directionHash * HASH_BASE + dir.ordinal() + 1;
     }
 
 
@@ -83,7 +129,9 @@ public class Route implements Serializable {
      * @return last direction
      */
     public Direction removeLast() {
-        return route.remove(route.size() - 1);
+        Direction dir = route.remove(route.size() - 1);
+        directionHash = (directionHash - dir.ordinal() - 1) * HASH_BASE_INVERSE;
+        return dir;
     }
 
     /**
@@ -104,11 +152,8 @@ public class Route implements Serializable {
      * @throws FileNotFoundException
      */
     public void writeToFile(String filePath) throws FileNotFoundException {
-        PrintWriter pw = new PrintWriter(filePath);
-        String sb = String.valueOf(route.size()) + ";\n" +
-                start + ";\n" +
-                this.toString();
-        pw.write(sb);
-        pw.close();
+        try (RouteFileWriter writer = new RouteFileWriter().open(filePath)) {
+            writer.writeRoute(this);
+        }
     }
 }
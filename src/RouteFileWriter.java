@@ -0,0 +1,195 @@
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes route and action files straight from the routes into a byte buffer, which is drained into a file
+ * channel whenever it fills up. No strings are built for the directions, so the memory used does not grow with
+ * the size of the file. The output is byte for byte the text Route.toString() and the "take product" lines
+ * would produce. A writer can be reused for one file after another and keeps its buffer, but is not
+ * thread-safe.
+ */
+public class RouteFileWriter implements Closeable {
+    private static final byte[] TAKE_PRODUCT = "take product #".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DIGITS = new byte[Direction.values().length];
+
+    static {
+        for (Direction direction : Direction.values()) {
+            DIGITS[direction.ordinal()] = (byte) ('0' + Direction.dirToInt(direction));
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private FileChannel channel;
+
+    /**
+     * Constructor of a writer with a buffer of 64 KiB.
+     */
+    public RouteFileWriter() {
+        this(1 << 16);
+    }
+
+    /**
+     * Constructor of the writer.
+     * @param bufferSize Size of the buffer in bytes, at least 32.
+     */
+    public RouteFileWriter(int bufferSize) {
+        this.buffer = ByteBuffer.allocate(Math.max(bufferSize, 32));
+        this.bytes = buffer.array();
+    }
+
+    /**
+     * Start a new file, finishing the previous one first.
+     * @param filePath Path to the file, which is created or emptied.
+     * @return RouteFileWriter This writer.
+     */
+    public RouteFileWriter open(String filePath) throws FileNotFoundException {
+        close();
+        channel = new FileOutputStream(filePath).getChannel();
+        return this;
+    }
+
+    /**
+     * Write a number followed by ";\n".
+     * @param value The number.
+     * @return RouteFileWriter This writer.
+     */
+    public RouteFileWriter writeLine(long value) {
+        ensure(22);
+        putNumber(value);
+        putEnd();
+        return this;
+    }
+
+    /**
+     * Write a coordinate as Coordinate.toString() followed by ";\n".
+     * @param coordinate The coordinate.
+     * @return RouteFileWriter This writer.
+     */
+    public RouteFileWriter writeLine(Coordinate coordinate) {
+        ensure(28);
+        putNumber(coordinate.getX());
+        buffer.put((byte) ',').put((byte) ' ');
+        putNumber(coordinate.getY());
+        putEnd();
+        return this;
+    }
+
+    /**
+     * Write the directions of a route, one line each as in Route.toString().
+     * @param route The route.
+     * @return RouteFileWriter This writer.
+     */
+    public RouteFileWriter writeDirections(Route route) {
+        List<Direction> directions = route.getRoute();
+        int size = directions.size();
+        int i = 0;
+        while (i < size) {
+            ensure(3);
+            // fill the backing array directly, as many directions as fit
+            int position = buffer.position();
+            int end = Math.min(size, i + (buffer.limit() - position) / 3);
+            for (; i < end; i++) {
+                bytes[position++] = DIGITS[directions.get(i).ordinal()];
+                bytes[position++] = ';';
+                bytes[position++] = '\n';
+            }
+            buffer.position(position);
+        }
+        return this;
+    }
+
+    /**
+     * Write "take product #" with a product number starting at 1, followed by ";\n".
+     * @param product The index of the product, starting at 0.
+     * @return RouteFileWriter This writer.
+     */
+    public RouteFileWriter writeTakeProduct(int product) {
+        ensure(TAKE_PRODUCT.length + 13);
+        buffer.put(TAKE_PRODUCT);
+        putNumber(product + 1L);
+        putEnd();
+        return this;
+    }
+
+    /**
+     * Write a route file as Route.writeToFile(): its size, its start and its directions.
+     * @param route The route.
+     * @return RouteFileWriter This writer.
+     */
+    public RouteFileWriter writeRoute(Route route) {
+        return writeLine(route.size()).writeLine(route.getStart()).writeDirections(route);
+    }
+
+    private void putNumber(long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            if (value == Long.MIN_VALUE) {
+                // cannot be negated, write all but its last digit first
+                putNumber(-(value / 10));
+                buffer.put((byte) ('0' - value % 10));
+                return;
+            }
+            value = -value;
+        }
+        int position = buffer.position();
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) digits++;
+        for (int i = position + digits - 1; i >= position; i--, value /= 10) {
+            bytes[i] = (byte) ('0' + value % 10);
+        }
+        buffer.position(position + digits);
+    }
+
+    private void putEnd() {
+        buffer.put((byte) ';').put((byte) '\n');
+    }
+
+    /**
+     * Make room for a number of bytes, draining the buffer into the file if needed.
+     */
+    private void ensure(int size) {
+        if (buffer.remaining() < size) flush();
+    }
+
+    /**
+     * Write everything in the buffer to the file.
+     */
+    public void flush() {
+        if (channel == null) throw new IllegalStateException("No file opened");
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Finish the current file. The writer can open another file afterwards.
+     */
+    @Override
+    public void close() {
+        if (channel == null) return;
+        try {
+            flush();
+        } finally {
+            FileChannel closing = channel;
+            channel = null;
+            try {
+                closing.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+import java.util.Arrays;
+
+/**
+ * Shortens routes in time linear in their size. The optimizer notes the last position on the route of every
+ * tile, then walks the route once. From every tile it first jumps to the last time the route is on that tile,
+ * which removes loops. It then looks along a straight line of up to MAX_SHORTCUT open tiles in every direction
+ * for a later part of the route, and takes the line that cuts off the most steps. The result visits every tile
+ * at most once and is never longer than the input.
+ */
+public class RouteOptimizer {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int MAX_SHORTCUT = 16;
+
+    private final Maze maze;
+    // position of a slot on the route being optimized, valid where stamps holds the current run
+    private final int[] lastPosition;
+    private final int[] stamps;
+    private int run;
+    private int[] slots = new int[0];
+    private Coordinate[] coordinates = new Coordinate[0];
+
+    /**
+     * Constructor of the optimizer, which is not thread-safe.
+     * @param maze The maze the routes run through.
+     */
+    public RouteOptimizer(Maze maze) {
+        this.maze = maze;
+        this.lastPosition = new int[maze.getCellCount()];
+        this.stamps = new int[maze.getCellCount()];
+    }
+
+    /**
+     * Remove loops and detours from a route.
+     * @param route The route, not modified.
+     * @return Route The shortened route, or the route itself if nothing could be removed.
+     */
+    public Route optimize(Route route) {
+        int size = route.size();
+        if (slots.length < size + 1) {
+            slots = new int[size + 1];
+            coordinates = new Coordinate[size + 1];
+        }
+        if (++run == 0) {
+            Arrays.fill(stamps, 0);
+            run = 1;
+        }
+        Coordinate current = route.getStart();
+        for (int position = 0; ; position++) {
+            coordinates[position] = current;
+            slots[position] = maze.getCellIndex(current);
+            stamps[slots[position]] = run;
+            lastPosition[slots[position]] = position;
+            if (position == size) break;
+            current = current.add(route.getRoute().get(position));
+        }
+
+        Route optimized = new Route(route.getStart());
+        int position = 0;
+        while (true) {
+            position = lastPosition[slots[position]];
+            if (position == size) break;
+            int next = position + 1;
+            int gain = 0;
+            int steps = 1;
+            Direction step = route.getRoute().get(position);
+            for (Direction direction : DIRECTIONS) {
+                // follow open tiles in a straight line as long as no tile is one the result already holds
+                Coordinate tile = coordinates[position];
+                int passed = -1;
+                for (int distance = 1; distance <= MAX_SHORTCUT; distance++) {
+                    tile = tile.add(direction);
+                    if (!maze.isPassable(tile)) break;
+                    int slot = maze.getCellIndex(tile);
+                    if (stamps[slot] != run) continue;
+                    int target = lastPosition[slot];
+                    if (target <= position) break;
+                    if (target > passed && target - position - distance > gain) {
+                        next = target;
+                        gain = target - position - distance;
+                        steps = distance;
+                        step = direction;
+                    }
+                    passed = Math.max(passed, target);
+                }
+            }
+            Coordinate tile = coordinates[position];
+            for (int i = 0; i < steps; i++) {
+                optimized.add(step);
+                tile = tile.add(step);
+                int slot = maze.getCellIndex(tile);
+                if (stamps[slot] != run) {
+                    // a tile off the route, which no later shortcut may cross again
+                    stamps[slot] = run;
+                    lastPosition[slot] = -1;
+                }
+            }
+            position = next;
+        }
+        if (optimized.size() == size) return route;
+        return optimized;
+    }
+}
@@ -0,0 +1,158 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Client putting load on a {@link RoutingServer}. Every connection sends its requests from one thread and
+ * reads the answers on another, keeping up to a pipeline depth of requests unanswered. The time from sending a
+ * request to reading its answer is recorded for every request, and the percentiles over all connections are
+ * printed at the end.
+ */
+public class RoutingLoadGenerator {
+    private final String host;
+    private final int port;
+    private final String[] requests;
+
+    /**
+     * Constructor of the load generator.
+     * @param host The host of the server.
+     * @param port The port of the server.
+     * @param requests The request lines, sent in turns.
+     */
+    public RoutingLoadGenerator(String host, int port, String[] requests) {
+        this.host = host;
+        this.port = port;
+        this.requests = requests;
+    }
+
+    /**
+     * Latencies and errors of one connection.
+     */
+    private class Connection implements Runnable {
+        final int count;
+        final int depth;
+        final long[] latencies;
+        int errors;
+        IOException failure;
+
+        Connection(int count, int depth) {
+            this.count = count;
+            this.depth = depth;
+            this.latencies = new long[count];
+        }
+
+        @Override
+        public void run() {
+            try (Socket socket = new Socket(host, port)) {
+                socket.setTcpNoDelay(true);
+                BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                ConcurrentLinkedQueue<Long> sent = new ConcurrentLinkedQueue<>();
+                Semaphore window = new Semaphore(depth);
+                Thread sender = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < count; i++) {
+                            window.acquire();
+                            sent.add(System.nanoTime());
+                            out.write(requests[i % requests.length]);
+                            out.write('\n');
+                            out.flush();
+                        }
+                        out.write("QUIT\n");
+                        out.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                sender.setDaemon(true);
+                sender.start();
+                for (int i = 0; i < count; i++) {
+                    String answer = in.readLine();
+                    if (answer == null) throw new IOException("Connection closed after " + i + " answers");
+                    // answers arrive in request order
+                    latencies[i] = System.nanoTime() - sent.remove();
+                    if (!answer.startsWith("OK") && !answer.equals("PONG")) errors++;
+                    window.release();
+                }
+                sender.join();
+            } catch (IOException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Send requests over several connections at once and print the latency percentiles.
+     * @param connections Number of connections.
+     * @param requestsPerConnection Number of requests sent over every connection.
+     * @param depth Number of requests a connection may have unanswered.
+     * @return long[] The sorted latencies in nanoseconds.
+     */
+    public long[] run(int connections, int requestsPerConnection, int depth) throws IOException, InterruptedException {
+        Connection[] connection = new Connection[connections];
+        Thread[] threads = new Thread[connections];
+        long startTime = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            connection[i] = new Connection(requestsPerConnection, depth);
+            threads[i] = new Thread(connection[i], "load-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long duration = System.nanoTime() - startTime;
+
+        long[] latencies = new long[connections * requestsPerConnection];
+        int errors = 0;
+        for (int i = 0; i < connections; i++) {
+            if (connection[i].failure != null) throw connection[i].failure;
+            System.arraycopy(connection[i].latencies, 0, latencies, i * requestsPerConnection, requestsPerConnection);
+            errors += connection[i].errors;
+        }
+        Arrays.sort(latencies);
+        System.out.println(String.format(Locale.ROOT, "[Load] %d requests in %.3fs, %.1f requests/s, %d errors",
+                latencies.length, duration / 1e9, latencies.length / (duration / 1e9), errors));
+        System.out.println(String.format(Locale.ROOT, "[Load] p50 %.3fms  p90 %.3fms  p99 %.3fms  p99.9 %.3fms  max %.3fms",
+                percentile(latencies, 0.5) / 1e6, percentile(latencies, 0.9) / 1e6, percentile(latencies, 0.99) / 1e6,
+                percentile(latencies, 0.999) / 1e6, latencies[latencies.length - 1] / 1e6));
+        return latencies;
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values.
+     * @param sorted The values in ascending order.
+     * @param fraction The percentile as a fraction between 0 and 1.
+     * @return long The value.
+     */
+    public static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(fraction * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    /**
+     * Driver putting load on a running server.
+     * Usage: RoutingLoadGenerator [host] [port] [connections] [requests per connection] [pipeline depth] [request...]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7070;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int requestsPerConnection = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        int depth = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+        String[] requests = args.length > 5 ? Arrays.copyOfRange(args, 5, args.length) : new String[] {"PATH easy"};
+        new RoutingLoadGenerator(host, port, requests).run(connections, requestsPerConnection, depth);
+    }
+}
@@ -0,0 +1,313 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resident server keeping mazes, the TSPData and warm solvers in memory between requests. Clients connect to a
+ * TCP socket on the loopback address and send one request per line:
+ *      PING                        answered with PONG
+ *      PATH maze [sx sy ex ey]     the shortest route ACO finds through "&lt;maze&gt; maze.txt", between the
+ *                                  coordinates of "&lt;maze&gt; coordinates.txt" unless given;
+ *                                  answered with OK &lt;size&gt; &lt;one digit per direction as in Route.toString&gt;
+ *      ORDER p1 p2 ...             a picking order of products numbered as in the action files (starting at 1);
+ *                                  answered with OK &lt;length including one step per product&gt; &lt;products&gt;
+ *      QUIT                        closes the connection once all earlier requests are answered
+ * A request that fails is answered with ERR &lt;message&gt;. A client may send many requests without waiting: they
+ * are solved concurrently on a fixed pool of workers, and answered in the order they were sent.
+ */
+public class RoutingServer implements Closeable {
+    private static final int ANTS_PER_GENERATION = 25;
+    private static final int NUMBER_OF_GENERATIONS = 20;
+    private static final double QUALITY_FACTOR = 1000;
+    private static final double INITIAL_PHEROMONE = 1000;
+    private static final double EVAPORATION_FACTOR = 0.1;
+    // requests of one connection that may be waiting for their answer before its reader stops reading
+    private static final int PIPELINE_LIMIT = 256;
+    private static final Future<String> QUIT = CompletableFuture.completedFuture(null);
+
+    private final String dataDirectory;
+    private final BatchOrderPicker picker;
+    private final ExecutorService workers;
+    private final ConcurrentHashMap<String, Maze> mazes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, PathSpecification> specs = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private ServerSocket serverSocket;
+    public static boolean DEBUG = false;
+
+    /**
+     * Constructor of the server, which does not listen before start().
+     * @param dataDirectory Directory holding the maze and coordinate files.
+     * @param tsp The distance data answering ORDER requests, null to refuse them.
+     * @param threads Number of requests solved at the same time.
+     */
+    public RoutingServer(String dataDirectory, TSPData tsp, int threads) {
+        this.dataDirectory = dataDirectory;
+        this.picker = tsp == null ? null
+                : new BatchOrderPicker(tsp, threads, () -> new GeneticAlgorithm(100, 100, 0.7d, 0.01d));
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "routing-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start listening on the loopback address.
+     * @param port The port, 0 for any free port.
+     * @return int The port the server listens on.
+     */
+    public int start(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "routing-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                int number = connections.incrementAndGet();
+                Thread reader = new Thread(() -> serve(socket), "routing-connection-" + number);
+                reader.setDaemon(true);
+                reader.start();
+            } catch (SocketException e) {
+                // the server socket was closed
+            } catch (IOException e) {
+                if (DEBUG) System.out.println("[Server] Accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Read the requests of a connection and hand them to the workers. A second thread writes the answers in
+     * request order as they complete, so the reader never waits for a solver.
+     */
+    private void serve(Socket socket) {
+        BlockingQueue<Future<String>> answers = new LinkedBlockingQueue<>(PIPELINE_LIMIT);
+        Thread writer = new Thread(() -> answer(socket, answers), Thread.currentThread().getName() + "-writer");
+        writer.setDaemon(true);
+        writer.start();
+        // closing the reader would close the socket, which the writer closes after the last answer
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            String line;
+            while ((line = in.readLine()) != null) {
+                String request = line.trim();
+                if (request.isEmpty()) continue;
+                if (request.equalsIgnoreCase("QUIT")) break;
+                answers.put(request.equalsIgnoreCase("PING")
+                        ? CompletableFuture.completedFuture("PONG") : workers.submit(() -> handle(request)));
+            }
+        } catch (IOException e) {
+            if (DEBUG) System.out.println("[Server] Reading failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                answers.put(QUIT);
+            } catch (InterruptedException e) {
+                writer.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Write the answers of a connection in request order. If the client is gone, the socket is closed, which
+     * stops the reader, and the requests still queued are cancelled until the reader has queued QUIT.
+     */
+    private void answer(Socket socket, BlockingQueue<Future<String>> answers) {
+        try (socket; BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            Future<String> answer;
+            while ((answer = answers.take()) != QUIT) {
+                String line;
+                try {
+                    line = answer.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    // some failures, an empty stack for one, carry no message
+                    line = "ERR " + (cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName());
+                    if (DEBUG) {
+                        System.out.println("[Server] Request failed: " + cause);
+                        cause.printStackTrace(System.out);
+                    }
+                }
+                out.write(line);
+                out.write('\n');
+                // answers that are already waiting go out in the same packet
+                if (answers.isEmpty()) out.flush();
+            }
+            return;
+        } catch (IOException e) {
+            if (DEBUG) System.out.println("[Server] Writing failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        // keep the queue moving so the reader can always put QUIT, and spare the workers answers nobody reads
+        try {
+            Future<String> answer;
+            while ((answer = answers.take()) != QUIT) {
+                answer.cancel(true);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Answer a single request on the calling thread.
+     * @param request The request line without its line break.
+     * @return String The answer line without its line break.
+     */
+    public String handle(String request) {
+        String[] words = request.trim().split("\\s+");
+        try {
+            switch (words[0].toUpperCase()) {
+                case "PING":
+                    return "PONG";
+                case "PATH":
+                    return path(words);
+                case "ORDER":
+                    return order(words);
+                default:
+                    return "ERR Unknown request " + words[0];
+            }
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    private String path(String[] words) {
+        if (words.length != 2 && words.length != 6) {
+            throw new IllegalArgumentException("Usage: PATH maze [startX startY endX endY]");
+        }
+        Maze template = maze(words[1]);
+        PathSpecification spec = words.length == 2 ? spec(words[1])
+                : new PathSpecification(new Coordinate(Integer.parseInt(words[2]), Integer.parseInt(words[3])),
+                        new Coordinate(Integer.parseInt(words[4]), Integer.parseInt(words[5])));
+        if (!template.isPassable(spec.getStart()) || !template.isPassable(spec.getEnd())) {
+            throw new IllegalArgumentException("Start or end is not an open tile of maze " + words[1]);
+        }
+        // the walls are shared, every request deposits on its own pheromone
+        Maze maze = template.withOwnPheromones(HeapPheromoneGrid::new);
+        Route route = new AntColonyOptimization(maze, ANTS_PER_GENERATION, NUMBER_OF_GENERATIONS, QUALITY_FACTOR,
+                EVAPORATION_FACTOR).findShortestRoute(spec, 0, null);
+        StringBuilder sb = new StringBuilder(route.size() + 16).append("OK ").append(route.size()).append(' ');
+        for (Direction direction : route.getRoute()) {
+            sb.append(Direction.dirToInt(direction));
+        }
+        return sb.toString();
+    }
+
+    private String order(String[] words) {
+        if (words.length < 2) throw new IllegalArgumentException("Usage: ORDER p1 p2 ...");
+        if (picker == null) throw new IllegalArgumentException("No product data loaded");
+        int products = picker.productCount();
+        int[] order = new int[words.length - 1];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = Integer.parseInt(words[i + 1]) - 1;
+            if (order[i] < 0 || order[i] >= products) {
+                throw new IllegalArgumentException("Product " + words[i + 1] + " is not between 1 and " + products);
+            }
+        }
+        if (Arrays.stream(order).distinct().count() != order.length) {
+            throw new IllegalArgumentException("A product is ordered twice");
+        }
+        int[] solution = picker.solve(order, 0);
+        StringBuilder sb = new StringBuilder("OK ").append(picker.length(solution));
+        for (int product : solution) {
+            sb.append(' ').append(product + 1);
+        }
+        return sb.toString();
+    }
+
+    private Maze maze(String name) {
+        return mazes.computeIfAbsent(name, key -> {
+            try {
+                return Maze.createMaze(dataDirectory + "/" + key + " maze.txt", INITIAL_PHEROMONE);
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException("No maze " + key, e);
+            }
+        });
+    }
+
+    private PathSpecification spec(String name) {
+        return specs.computeIfAbsent(name, key -> {
+            try {
+                return PathSpecification.readCoordinates(dataDirectory + "/" + key + " coordinates.txt");
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException("No coordinates for maze " + key, e);
+            }
+        });
+    }
+
+    /**
+     * Load a maze and let the solvers run on it a few times, so the first clients do not pay for class loading
+     * and compilation.
+     * @param name The name of the maze.
+     * @param rounds Number of requests solved.
+     */
+    public void warmUp(String name, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            String answer = handle("PATH " + name);
+            if (answer.startsWith("ERR")) throw new IllegalArgumentException(answer.substring(4));
+        }
+    }
+
+    /**
+     * Stop accepting connections and stop the workers.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (serverSocket != null) serverSocket.close();
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Driver starting a server that runs until the JVM is stopped.
+     * Usage: RoutingServer [port] [data directory] [persist file, or "none"] [threads] [maze to warm up...]
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        String dataDirectory = args.length > 1 ? args[1] : "./data";
+        String persistFile = args.length > 2 ? args[2] : "./tmp/productMatrixDist";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        long startTime = System.currentTimeMillis();
+        TSPData tspData = persistFile.equals("none") ? null : TSPData.readFromFile(persistFile);
+        RoutingServer server = new RoutingServer(dataDirectory, tspData, threads);
+        for (int i = 4; i < args.length; i++) {
+            server.warmUp(args[i], 3);
+        }
+        port = server.start(port);
+        System.out.println("[Server] Listening on " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + port
+                + " after " + ((System.currentTimeMillis() - startTime) / 1000.0) + " Seconds");
+        Thread.currentThread().join();
+    }
+}
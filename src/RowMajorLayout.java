@@ -0,0 +1,22 @@
+/**
+ * One slot for every cell, slot y * width + x, the order of the maze file.
+ */
+public class RowMajorLayout implements CellLayout {
+    private final int width;
+    private final int length;
+
+    public RowMajorLayout(int width, int length) {
+        this.width = width;
+        this.length = length;
+    }
+
+    @Override
+    public int size() {
+        return width * length;
+    }
+
+    @Override
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+}
@@ -0,0 +1,12 @@
+/**
+ * Receives the statistics of every generation of a solver run. Listeners are called on the thread running the
+ * solver, so they should return quickly; solvers only collect statistics while at least one listener is attached.
+ */
+public interface RunListener {
+
+    /**
+     * Called after a generation has completed.
+     * @param stats The statistics of the generation.
+     */
+    void generationCompleted(GenerationStats stats);
+}
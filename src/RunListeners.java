@@ -0,0 +1,44 @@
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The listeners attached to a solver. Solvers check isActive() before measuring anything, so a run without
+ * listeners pays for a single check per generation.
+ */
+public class RunListeners {
+    private final List<RunListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Attach a listener.
+     * @param listener The listener.
+     */
+    public void add(RunListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Detach a listener.
+     * @param listener The listener.
+     */
+    public void remove(RunListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Whether any listener is attached.
+     * @return boolean Whether statistics should be collected.
+     */
+    public boolean isActive() {
+        return !listeners.isEmpty();
+    }
+
+    /**
+     * Send the statistics of a generation to all listeners.
+     * @param stats The statistics.
+     */
+    public void publish(GenerationStats stats) {
+        for (RunListener listener : listeners) {
+            listener.generationCompleted(stats);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Plain loops, the fallback when the Vector API is not available.
+ */
+public class ScalarPheromoneKernels implements PheromoneKernels {
+
+    /**
+     * Loads the kernels once, preferring the vectorised ones.
+     */
+    static class Holder {
+        static final PheromoneKernels KERNELS = load();
+
+        private static PheromoneKernels load() {
+            if ("scalar".equals(System.getProperty("pheromone.kernels"))) return new ScalarPheromoneKernels();
+            try {
+                return (PheromoneKernels) Class.forName("VectorPheromoneKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return new ScalarPheromoneKernels();
+            }
+        }
+    }
+
+    @Override
+    public void scale(double[] values, double factor) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] *= factor;
+        }
+    }
+
+    @Override
+    public void fillOpen(double[] values, WallBits walls, double value) {
+        for (int word = 0; word < walls.getWords(); word++) {
+            long bits = walls.getWord(word);
+            while (bits != 0) {
+                values[word * 64 + Long.numberOfTrailingZeros(bits)] = value;
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    @Override
+    public void clamp(double[] values, double min, double max) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != 0) values[i] = Math.max(min, Math.min(max, values[i]));
+        }
+    }
+
+    @Override
+    public void deposit(double[] values, int[] slots, int count, double amount) {
+        for (int i = 0; i < count; i++) {
+            values[slots[i]] += amount;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,275 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Reproducible benchmark of all path and tour solvers. Every solver runs on the shipped mazes and product files
+ * for a fixed set of seeds. Per run it records the wall time, the final length, the time until the length came
+ * within TARGET_TOLERANCE of the best length any run found on that instance, and the allocated memory.
+ * Results are written as CSV and JSON so they can be compared between releases.
+ */
+public class SolverBenchmark {
+    private static final String[] MAZES = {"easy", "medium", "hard", "insane"};
+    private static final String[] PRODUCT_FILES = {"./tmp/productMatrixDist"};
+    private static final long[] SEEDS = {1, 2, 3, 4, 5};
+    private static final double TARGET_TOLERANCE = 0.05d;
+
+    private final List<Run> runs = new ArrayList<>();
+
+    /**
+     * Measurements of a single solver run.
+     */
+    private static class Run {
+        String kind;
+        String instance;
+        String solver;
+        long seed;
+        long wallNanos;
+        long length;
+        long allocatedBytes;
+        long timeToTargetNanos = -1;
+        final List<long[]> trace = new ArrayList<>();
+    }
+
+    /**
+     * Build the tour solvers under test, each with fixed parameters.
+     * @return Map from solver name to a factory for a fresh solver.
+     */
+    private static Map<String, Supplier<TourSolver>> tourSolvers() {
+        Map<String, Supplier<TourSolver>> solvers = new LinkedHashMap<>();
+        solvers.put("GeneticAlgorithm", () -> {
+            GeneticAlgorithm ga = new GeneticAlgorithm(200, 200, 0.7d, 0.05d);
+            ga.setExactThreshold(0);
+            return ga;
+        });
+        solvers.put("IslandGeneticAlgorithm", () -> new IslandGeneticAlgorithm(4, 200, 50, 0.7d, 0.05d, 25, 3,
+                IslandGeneticAlgorithm.Topology.RING));
+        solvers.put("HeldKarpSolver", HeldKarpSolver::new);
+        solvers.put("AntColonySystem", () -> new AntColonySystem(25, 200));
+        solvers.put("IteratedLocalSearch", () -> new IteratedLocalSearch(TourConstruction.Strategy.GREEDY_EDGE, 200));
+        return solvers;
+    }
+
+    /**
+     * Run all tour solvers on a persisted product distance file.
+     * @param file The persist file.
+     */
+    private void benchmarkTours(String file) throws IOException, ClassNotFoundException {
+        ProductDistances pd = new ProductDistances(TSPData.readFromFile(file));
+        String instance = new File(file).getName();
+        for (Map.Entry<String, Supplier<TourSolver>> solver : tourSolvers().entrySet()) {
+            if (solver.getValue().get() instanceof HeldKarpSolver && pd.size() > HeldKarpSolver.MAX_PRODUCTS) continue;
+            // warm-up run, not recorded
+            solver.getValue().get().solve(pd, 0, null);
+            for (long seed : SEEDS) {
+                Run run = start("tour", instance, solver.getKey(), seed);
+                AllocationSampler sampler = new AllocationSampler();
+                long startTime = System.nanoTime();
+                int[] order = solver.getValue().get().solve(pd, seed, length -> run.trace.add(new long[]{System.nanoTime() - startTime, length}));
+                finish(run, startTime, sampler, pd.length(order));
+            }
+        }
+    }
+
+    /**
+     * Run the path solver on a shipped maze.
+     * @param dataDirectory Directory containing the maze and coordinate files.
+     * @param name Name of the maze.
+     */
+    private void benchmarkPaths(String dataDirectory, String name) throws IOException {
+        String mazeFile = dataDirectory + "/" + name + " maze.txt";
+        String coordinateFile = dataDirectory + "/" + name + " coordinates.txt";
+        if (!new File(mazeFile).exists() || !new File(coordinateFile).exists()) {
+            System.out.println("[Benchmark] Skipping maze " + name + ", files not found");
+            return;
+        }
+        PathSpecification spec = PathSpecification.readCoordinates(coordinateFile);
+        Maze warmUp = Maze.createMaze(mazeFile, 1000);
+        new AntColonyOptimization(warmUp, 10, 5, 1000, 0.1d).findShortestRoute(spec, 0, null);
+        for (long seed : SEEDS) {
+            Maze maze = Maze.createMaze(mazeFile, 1000);
+            Run run = start("path", name, "AntColonyOptimization", seed);
+            AllocationSampler sampler = new AllocationSampler();
+            long startTime = System.nanoTime();
+            Route route = new AntColonyOptimization(maze, 10, 20, 1000, 0.1d)
+                    .findShortestRoute(spec, seed, length -> run.trace.add(new long[]{System.nanoTime() - startTime, length}));
+            finish(run, startTime, sampler, route.size());
+        }
+    }
+
+    /**
+     * Create the record of a new run.
+     */
+    private Run start(String kind, String instance, String solver, long seed) {
+        Run run = new Run();
+        run.kind = kind;
+        run.instance = instance;
+        run.solver = solver;
+        run.seed = seed;
+        return run;
+    }
+
+    /**
+     * Complete the record of a run and add it to the results.
+     */
+    private void finish(Run run, long startTime, AllocationSampler sampler, long length) {
+        run.wallNanos = System.nanoTime() - startTime;
+        run.allocatedBytes = sampler.stop();
+        run.length = length;
+        runs.add(run);
+        System.out.println("[Benchmark] " + run.instance + "\t" + run.solver + "\tseed " + run.seed +
+                "\t" + (run.wallNanos / 1000000.0) + "ms\tlength " + run.length);
+    }
+
+    /**
+     * Compute the time to target of every run, the target being the best length on the instance plus tolerance.
+     */
+    private void computeTimeToTarget() {
+        Map<String, Long> best = new HashMap<>();
+        for (Run run : runs) {
+            best.merge(run.kind + "/" + run.instance, run.length, Math::min);
+        }
+        for (Run run : runs) {
+            double target = best.get(run.kind + "/" + run.instance) * (1 + TARGET_TOLERANCE);
+            for (long[] point : run.trace) {
+                if (point[1] <= target) {
+                    run.timeToTargetNanos = point[0];
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the results as CSV.
+     * @param filePath Path of the CSV file.
+     */
+    private void writeCsv(String filePath) throws IOException {
+        PrintWriter pw = new PrintWriter(filePath);
+        pw.println("kind,instance,solver,seed,wall_ms,length,time_to_target_ms,allocated_mb,allocation_rate_mb_per_s");
+        for (Run run : runs) {
+            pw.println(String.format(Locale.ROOT, "%s,%s,%s,%d,%.3f,%d,%s,%.3f,%.3f",
+                    run.kind, run.instance, run.solver, run.seed, run.wallNanos / 1e6, run.length,
+                    run.timeToTargetNanos < 0 ? "" : String.format(Locale.ROOT, "%.3f", run.timeToTargetNanos / 1e6),
+                    run.allocatedBytes / 1048576.0, allocationRate(run)));
+        }
+        pw.close();
+    }
+
+    /**
+     * Write the results as JSON.
+     * @param filePath Path of the JSON file.
+     */
+    private void writeJson(String filePath) throws IOException {
+        PrintWriter pw = new PrintWriter(filePath);
+        pw.println("[");
+        for (int i = 0; i < runs.size(); i++) {
+            Run run = runs.get(i);
+            pw.print(String.format(Locale.ROOT,
+                    "  {\"kind\": \"%s\", \"instance\": \"%s\", \"solver\": \"%s\", \"seed\": %d, \"wallMs\": %.3f, " +
+                            "\"length\": %d, \"timeToTargetMs\": %s, \"allocatedMb\": %.3f, \"allocationRateMbPerS\": %.3f}",
+                    run.kind, run.instance, run.solver, run.seed, run.wallNanos / 1e6, run.length,
+                    run.timeToTargetNanos < 0 ? "null" : String.format(Locale.ROOT, "%.3f", run.timeToTargetNanos / 1e6),
+                    run.allocatedBytes / 1048576.0, allocationRate(run)));
+            pw.println(i < runs.size() - 1 ? "," : "");
+        }
+        pw.println("]");
+        pw.close();
+    }
+
+    private static double allocationRate(Run run) {
+        return run.allocatedBytes / 1048576.0 / Math.max(run.wallNanos / 1e9, 1e-9);
+    }
+
+    /**
+     * Measures the bytes allocated by all threads of the JVM between construction and stop(). Threads are sampled
+     * every few milliseconds, so threads that end between two samples lose their last few milliseconds; returns -1
+     * when the JVM cannot measure thread allocation.
+     */
+    private static class AllocationSampler {
+        private final com.sun.management.ThreadMXBean threads;
+        private final Map<Long, Long> baseline = new HashMap<>();
+        private final Map<Long, Long> latest = new HashMap<>();
+        private final Thread sampler;
+        private volatile boolean running = true;
+
+        AllocationSampler() {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            threads = bean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) bean : null;
+            if (threads != null && threads.isThreadAllocatedMemorySupported()) {
+                sample(baseline);
+                sampler = new Thread(() -> {
+                    while (running) {
+                        sample(latest);
+                        try {
+                            Thread.sleep(5);
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                });
+                sampler.setDaemon(true);
+                sampler.start();
+            } else {
+                sampler = null;
+            }
+        }
+
+        private synchronized void sample(Map<Long, Long> target) {
+            long[] ids = threads.getAllThreadIds();
+            long[] bytes = threads.getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; i++) {
+                if (bytes[i] >= 0) target.put(ids[i], bytes[i]);
+            }
+        }
+
+        long stop() {
+            if (sampler == null) return -1;
+            running = false;
+            try {
+                sampler.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sample(latest);
+            long total = 0;
+            for (Map.Entry<Long, Long> entry : latest.entrySet()) {
+                total += entry.getValue() - baseline.getOrDefault(entry.getKey(), 0L);
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Runs the benchmark.
+     * Usage: SolverBenchmark [data directory] [output prefix]
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        String dataDirectory = args.length > 0 ? args[0] : "./data";
+        String output = args.length > 1 ? args[1] : "./tmp/benchmark";
+        AntColonyOptimization.DEBUG = false;
+        GeneticAlgorithm.DEBUG = false;
+        IslandGeneticAlgorithm.DEBUG = false;
+
+        SolverBenchmark benchmark = new SolverBenchmark();
+        for (String maze : MAZES) {
+            benchmark.benchmarkPaths(dataDirectory, maze);
+        }
+        for (String file : PRODUCT_FILES) {
+            benchmark.benchmarkTours(file);
+        }
+        benchmark.computeTimeToTarget();
+        benchmark.writeCsv(output + ".csv");
+        benchmark.writeJson(output + ".json");
+        System.out.println("[Benchmark] Results written to " + output + ".csv and " + output + ".json");
+    }
+}
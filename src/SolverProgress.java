@@ -0,0 +1,11 @@
+/**
+ * Callback receiving the length of the best solution found so far, every time a solver improves it.
+ */
+public interface SolverProgress {
+
+    /**
+     * Called when the best solution improved.
+     * @param length Length of the new best solution.
+     */
+    void improved(long length);
+}
@@ -0,0 +1,62 @@
+/**
+ * Slots for the open cells only, numbered in row-major order. The slot of a cell is its rank among the open
+ * wall bits, found with a prefix count per 64 cells and a popcount. A neighbour table gives the slots of the
+ * four neighbours of every open cell. Memory and sweeps over the slots scale with the walkable area instead
+ * of the bounding box of the maze.
+ */
+public class SparseLayout implements CellLayout {
+    private final WallBits walls;
+    private final int width;
+    private final int[] prefix;
+    private final int[] neighbours;
+    private final int size;
+
+    /**
+     * Constructor of the layout for the open cells of a maze.
+     * @param walls The walls of the maze.
+     */
+    public SparseLayout(WallBits walls) {
+        this.walls = walls;
+        this.width = walls.getWidth();
+        this.prefix = new int[walls.getWords()];
+        int open = 0;
+        for (int word = 0; word < prefix.length; word++) {
+            prefix[word] = open;
+            open += Long.bitCount(walls.getWord(word));
+        }
+        this.size = open;
+
+        Direction[] directions = Direction.values();
+        this.neighbours = new int[size * directions.length];
+        int length = walls.getLength();
+        for (int y = 0; y < length; y++) {
+            for (int x = 0; x < width; x++) {
+                int slot = index(x, y);
+                if (slot < 0) continue;
+                for (Direction direction : directions) {
+                    neighbours[slot * directions.length + direction.ordinal()] =
+                            CellLayout.super.neighbour(slot, x, y, direction, width, length);
+                }
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int index(int x, int y) {
+        int cell = y * width + x;
+        long word = walls.getWord(cell >>> 6);
+        if ((word >>> cell & 1) == 0) return -1;
+        return prefix[cell >>> 6] + Long.bitCount(word & ((1L << cell) - 1));
+    }
+
+    @Override
+    public int neighbour(int index, int x, int y, Direction direction, int width, int length) {
+        if (index < 0) return CellLayout.super.neighbour(index, x, y, direction, width, length);
+        return neighbours[index * 4 + direction.ordinal()];
+    }
+}
@@ -1,8 +1,6 @@
 import java.io.*;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Scanner;
-import java.util.regex.Pattern;
 
 /**
  * Class containing the product distances. Can be either build from a maze, a product
@@ -117,6 +115,17 @@ public class TSPData implements Serializable {
      * @param filePath Path to the solution file
      */
     public void writeActionFile(int[] productOrder, String filePath) throws FileNotFoundException {
+        writeActionFile(productOrder, filePath, new RouteFileWriter());
+    }
+
+    /**
+     * Write away an action file based on a solution from the TSP problem, streaming the routes through a writer
+     * whose buffer is reused for every file it writes.
+     * @param productOrder Solution of the TSP problem
+     * @param filePath Path to the solution file
+     * @param writer The writer, not used by another thread at the same time
+     */
+    public void writeActionFile(int[] productOrder, String filePath, RouteFileWriter writer) throws FileNotFoundException {
         int totalLength = startDistances[productOrder[0]];
         for (int i = 0; i < productOrder.length - 1; i++) {
             int from = productOrder[i];
@@ -125,22 +134,19 @@ public class TSPData implements Serializable {
         }
         totalLength += endDistances[productOrder[productOrder.length - 1]] + productOrder.length;
 
-        StringBuilder sb = new StringBuilder();
-        sb.append(totalLength).append(";\n");
-        sb.append(spec.getStart()).append(";\n");
-        sb.append(startToProduct[productOrder[0]]);
-        sb.append("take product #").append(productOrder[0] + 1).append(";\n");
-        for (int i = 0; i < productOrder.length - 1; i++) {
-            int from = productOrder[i];
-            int to = productOrder[i+1];
-            sb.append(productToProduct[from][to]);
-            sb.append("take product #").append(to + 1).append(";\n");
+        try (RouteFileWriter out = writer.open(filePath)) {
+            out.writeLine(totalLength);
+            out.writeLine(spec.getStart());
+            out.writeDirections(startToProduct[productOrder[0]]);
+            out.writeTakeProduct(productOrder[0]);
+            for (int i = 0; i < productOrder.length - 1; i++) {
+                int from = productOrder[i];
+                int to = productOrder[i+1];
+                out.writeDirections(productToProduct[from][to]);
+                out.writeTakeProduct(to);
+            }
+            out.writeDirections(productToEnd[productOrder[productOrder.length - 1]]);
         }
-        sb.append(productToEnd[productOrder[productOrder.length - 1]]);
-
-        PrintWriter pw = new PrintWriter(filePath);
-        pw.write(sb.toString());
-        pw.close();
     }
 
 
@@ -211,14 +217,13 @@ public class TSPData implements Serializable {
      * @return TSP object with uninitiatilized routes
      */
     public static TSPData readSpecification(String coordinates, String productFile) throws FileNotFoundException {
-        Scanner scan = new Scanner(new FileReader(productFile));
+        TextParser parser = new TextParser(productFile, ":,;");
         ArrayList<Coordinate> productLocations = new ArrayList<>();
-        scan.useDelimiter(Pattern.compile("[:,;]\\s*"));
-        int numberOfProducts = scan.nextInt();
+        int numberOfProducts = parser.nextInt();
         for (int i = 0; i < numberOfProducts; i++) {
-            int product = scan.nextInt();
-            int x = scan.nextInt();
-            int y = scan.nextInt();
+            int product = parser.nextInt();
+            int x = parser.nextInt();
+            int y = parser.nextInt();
             productLocations.add(new Coordinate(x, y));
         }
         PathSpecification spec = PathSpecification.readCoordinates(coordinates);
@@ -0,0 +1,127 @@
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.InputMismatchException;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/**
+ * Reads the integers of the maze, coordinate and product files straight from the bytes of a memory-mapped
+ * file, without the regular expressions and boxing of Scanner. Integers are separated by whitespace and by the
+ * given delimiter characters, so every file the Scanner based readers accept is read the same way.
+ */
+public class TextParser {
+    private final MappedByteBuffer buffer;
+    private final String delimiters;
+    private final long startTime = System.nanoTime();
+
+    /**
+     * Constructor of a parser over a file.
+     * @param filePath Path to the file.
+     * @param delimiters Characters separating integers in addition to whitespace.
+     * @throws FileNotFoundException If the file does not exist.
+     */
+    public TextParser(String filePath, String delimiters) throws FileNotFoundException {
+        this.delimiters = delimiters;
+        try (FileInputStream input = new FileInputStream(filePath)) {
+            FileChannel channel = input.getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Read the next integer.
+     * @return int The integer.
+     * @throws NoSuchElementException If the file has no more integers.
+     * @throws InputMismatchException If the next token is not an integer.
+     */
+    public int nextInt() {
+        byte c = skipSeparators();
+        boolean negative = c == '-';
+        if (c == '-' || c == '+') c = next();
+        if (c < '0' || c > '9') throw new InputMismatchException("Expected an integer at byte " + (buffer.position() - 1));
+        long value = 0;
+        while (c >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            if (value > Integer.MAX_VALUE + 1L) throw new InputMismatchException("Integer out of range at byte " + buffer.position());
+            if (!buffer.hasRemaining()) {
+                c = ' ';
+                break;
+            }
+            c = buffer.get();
+        }
+        if (!isSeparator(c)) throw new InputMismatchException("Unexpected character '" + (char) c + "' at byte " + (buffer.position() - 1));
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) throw new InputMismatchException("Integer out of range at byte " + buffer.position());
+        return (int) value;
+    }
+
+    private byte skipSeparators() {
+        byte c = next();
+        while (isSeparator(c)) c = next();
+        return c;
+    }
+
+    private byte next() {
+        if (!buffer.hasRemaining()) throw new NoSuchElementException();
+        return buffer.get();
+    }
+
+    private boolean isSeparator(byte c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || delimiters.indexOf(c) >= 0;
+    }
+
+    /**
+     * Number of bytes consumed so far.
+     * @return long The number of bytes.
+     */
+    public long getBytesRead() {
+        return buffer.position();
+    }
+
+    /**
+     * Parse throughput since the parser was created.
+     * @return double Megabytes per second.
+     */
+    public double getThroughput() {
+        return getBytesRead() / 1048576.0 / Math.max((System.nanoTime() - startTime) / 1e9, 1e-9);
+    }
+
+    /**
+     * Compare the parse throughput of Scanner and this parser on a maze file.
+     * Usage: TextParser [maze file]
+     */
+    public static void main(String[] args) throws FileNotFoundException {
+        String filePath = args.length > 0 ? args[0] : "./data/insane maze.txt";
+        for (int round = 0; round < 5; round++) {
+            long startTime = System.nanoTime();
+            Scanner scan = new Scanner(new FileReader(filePath));
+            int cells = scan.nextInt() * scan.nextInt();
+            long sum = 0;
+            for (int i = 0; i < cells; i++) sum += scan.nextInt();
+            scan.close();
+            double scannerMillis = (System.nanoTime() - startTime) / 1e6;
+
+            startTime = System.nanoTime();
+            TextParser parser = new TextParser(filePath, "");
+            cells = parser.nextInt() * parser.nextInt();
+            for (int i = 0; i < cells; i++) sum -= parser.nextInt();
+            double parserMillis = (System.nanoTime() - startTime) / 1e6;
+            if (sum != 0) throw new IllegalStateException("Parsers disagree");
+
+            System.out.println(String.format(Locale.ROOT,
+                    "Round %d: %d cells, Scanner %.1fms, TextParser %.1fms (%.1f MB/s, %.1f Mcells/s)", round, cells,
+                    scannerMillis, parserMillis, parser.getBytesRead() / 1048576.0 / (parserMillis / 1e3),
+                    cells / 1e3 / parserMillis));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Slots in square tiles of 2^tileBits by 2^tileBits tiles, the tiles in row-major order and the tiles of a
+ * tile row-major within it. A tile of 8 by 8 doubles fills eight cache lines, so most north and south steps
+ * stay inside the tile.
+ */
+public class TiledLayout implements CellLayout {
+    private final int tileBits;
+    private final int tileMask;
+    private final int tilesPerRow;
+    private final int size;
+
+    /**
+     * Constructor of the layout.
+     * @param width width of Maze (horizontal)
+     * @param length length of Maze (vertical)
+     * @param tileBits Log2 of the tile side.
+     */
+    public TiledLayout(int width, int length, int tileBits) {
+        this.tileBits = tileBits;
+        this.tileMask = (1 << tileBits) - 1;
+        this.tilesPerRow = (width + tileMask) >>> tileBits;
+        int tileRows = (length + tileMask) >>> tileBits;
+        this.size = tilesPerRow * tileRows << (2 * tileBits);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int index(int x, int y) {
+        int tile = (y >>> tileBits) * tilesPerRow + (x >>> tileBits);
+        return tile << (2 * tileBits) | (y & tileMask) << tileBits | (x & tileMask);
+    }
+}
@@ -0,0 +1,245 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Construction heuristics building an initial product order from the start to the end point.
+ */
+public class TourConstruction {
+
+    /**
+     * The available construction heuristics.
+     *      NEAREST_NEIGHBOUR: walk from the start to the nearest product not visited yet.
+     *      GREEDY_EDGE: add the shortest edges that keep the order a set of paths, then join the paths.
+     *      RANDOM_INSERTION: insert the products in random order at their cheapest position.
+     *      RANDOM: a uniformly random order.
+     */
+    public enum Strategy { NEAREST_NEIGHBOUR, GREEDY_EDGE, RANDOM_INSERTION, RANDOM }
+
+    private static final int GREEDY_NEIGHBOURS = 10;
+
+    /**
+     * Build a product order with the given strategy.
+     * @param strategy The construction heuristic.
+     * @param pd The product distances.
+     * @return int[] The product order.
+     */
+    public static int[] build(Strategy strategy, ProductDistances pd) {
+        return build(strategy, pd, new Random());
+    }
+
+    /**
+     * Build a product order with the given strategy.
+     * @param strategy The construction heuristic.
+     * @param pd The product distances.
+     * @param random The randomizer used by the randomized strategies.
+     * @return int[] The product order.
+     */
+    public static int[] build(Strategy strategy, ProductDistances pd, Random random) {
+        switch (strategy) {
+            case NEAREST_NEIGHBOUR:
+                return nearestNeighbour(pd);
+            case GREEDY_EDGE:
+                return greedyEdge(pd);
+            case RANDOM_INSERTION:
+                return randomInsertion(pd, random);
+            case RANDOM:
+                return random(pd.size(), random);
+            default:
+                throw new IllegalArgumentException("Case statement does not match all possible values");
+        }
+    }
+
+    /**
+     * Nearest neighbour order starting at the start point.
+     * @param pd The product distances.
+     * @return int[] The product order.
+     */
+    public static int[] nearestNeighbour(ProductDistances pd) {
+        return nearestNeighbour(pd, -1);
+    }
+
+    /**
+     * Nearest neighbour order starting with a given product.
+     * @param pd The product distances.
+     * @param first The first product, -1 to start with the product nearest to the start point.
+     * @return int[] The product order.
+     */
+    public static int[] nearestNeighbour(ProductDistances pd, int first) {
+        int n = pd.size();
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int current = first;
+        if (first >= 0 && n > 0) {
+            visited[first] = true;
+            order[0] = first;
+        }
+        for (int i = first >= 0 ? 1 : 0; i < n; i++) {
+            int next = -1;
+            int best = Integer.MAX_VALUE;
+            for (int j = 0; j < n; j++) {
+                if (visited[j]) continue;
+                int distance = current < 0 ? pd.fromStart(j) : pd.between(current, j);
+                if (distance < best) {
+                    best = distance;
+                    next = j;
+                }
+            }
+            visited[next] = true;
+            order[i] = next;
+            current = next;
+        }
+        return order;
+    }
+
+    /**
+     * Random insertion order. The products are taken in random order and each is inserted where it adds the
+     * least length to the path from the start to the end built so far.
+     * @param pd The product distances.
+     * @param random The randomizer.
+     * @return int[] The product order.
+     */
+    public static int[] randomInsertion(ProductDistances pd, Random random) {
+        int n = pd.size();
+        int[] products = random(n, random);
+        int[] order = new int[n];
+        for (int size = 0; size < n; size++) {
+            int product = products[size];
+            int bestPosition = 0;
+            long bestAdded = Long.MAX_VALUE;
+            for (int position = 0; position <= size; position++) {
+                // insert between order[position - 1] (or the start) and order[position] (or the end)
+                long added;
+                if (size == 0) {
+                    added = 0;
+                } else if (position == 0) {
+                    added = (long) pd.fromStart(product) + pd.between(product, order[0]) - pd.fromStart(order[0]);
+                } else if (position == size) {
+                    added = (long) pd.between(order[size - 1], product) + pd.toEnd(product) - pd.toEnd(order[size - 1]);
+                } else {
+                    added = (long) pd.between(order[position - 1], product) + pd.between(product, order[position])
+                            - pd.between(order[position - 1], order[position]);
+                }
+                if (added < bestAdded) {
+                    bestAdded = added;
+                    bestPosition = position;
+                }
+            }
+            System.arraycopy(order, bestPosition, order, bestPosition + 1, size - bestPosition);
+            order[bestPosition] = product;
+        }
+        return order;
+    }
+
+    /**
+     * Uniformly random order, using a Fisher-Yates shuffle.
+     * @param n Number of products.
+     * @param random The randomizer.
+     * @return int[] The product order.
+     */
+    public static int[] random(int n, Random random) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            int r = random.nextInt(i + 1);
+            order[i] = order[r];
+            order[r] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Greedy edge order. Edges to the nearest neighbours of every product and from the start are added shortest
+     * first as long as every product keeps at most one successor and predecessor and no cycle is formed. The
+     * resulting paths are then joined nearest head first, beginning with the path attached to the start.
+     * @param pd The product distances.
+     * @return int[] The product order.
+     */
+    public static int[] greedyEdge(ProductDistances pd) {
+        int n = pd.size();
+        int start = n;
+        int k = Math.max(Math.min(GREEDY_NEIGHBOURS, n - 1), 0);
+        // the edge codes below must fit in the unsigned lower half of a key
+        if ((long) (n + 1) * n > 0xFFFFFFFFL) throw new IllegalArgumentException("Too many products for greedy edge: " + n);
+        int[][] neighbours = LocalSearch.buildNeighbourLists(pd, k);
+
+        // key: distance in the upper half, (from * n + to) unsigned in the lower half, from == n is the start point
+        long[] edges = new long[n * (k + 1)];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j : neighbours[i]) {
+                edges[count++] = ((long) pd.between(i, j) << 32) | ((long) i * n + j);
+            }
+            edges[count++] = ((long) pd.fromStart(i) << 32) | ((long) start * n + i);
+        }
+        Arrays.sort(edges, 0, count);
+
+        int[] next = new int[n + 1];
+        int[] previous = new int[n];
+        int[] fragment = new int[n];
+        Arrays.fill(next, -1);
+        Arrays.fill(previous, -1);
+        for (int i = 0; i < n; i++) fragment[i] = i;
+
+        for (int e = 0; e < count; e++) {
+            long code = edges[e] & 0xFFFFFFFFL;
+            int from = (int) (code / n);
+            int to = (int) (code % n);
+            if (next[from] >= 0 || previous[to] >= 0) continue;
+            if (from != start && find(fragment, from) == find(fragment, to)) continue;
+            next[from] = to;
+            previous[to] = from;
+            if (from != start) fragment[find(fragment, from)] = find(fragment, to);
+        }
+
+        int[] order = new int[n];
+        boolean[] used = new boolean[n];
+        int size = 0;
+        int current = next[start];
+        if (current < 0) current = nearestHead(pd, -1, previous, used);
+        while (size < n) {
+            // follow the path, then jump to the nearest path that is not used yet
+            while (current >= 0) {
+                used[current] = true;
+                order[size++] = current;
+                current = next[current];
+            }
+            if (size < n) current = nearestHead(pd, order[size - 1], previous, used);
+        }
+        return order;
+    }
+
+    /**
+     * Find the nearest first product of a path that is not used yet.
+     * @param pd The product distances.
+     * @param from The product walked from, -1 for the start point.
+     * @param previous Predecessor of every product, -1 or the start point for the first product of a path.
+     * @param used Whether a product is already part of the order.
+     * @return int The first product of the nearest path.
+     */
+    private static int nearestHead(ProductDistances pd, int from, int[] previous, boolean[] used) {
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int j = 0; j < previous.length; j++) {
+            if (used[j] || (previous[j] >= 0 && previous[j] < previous.length)) continue;
+            int distance = from < 0 ? pd.fromStart(j) : pd.between(from, j);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = j;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Union-find lookup with path halving.
+     * @param parent The parent of every element.
+     * @param element The element.
+     * @return int The representative of the set.
+     */
+    private static int find(int[] parent, int element) {
+        while (parent[element] != element) {
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+}
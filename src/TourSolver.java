@@ -0,0 +1,14 @@
+/**
+ * Common interface of the solvers for the product ordering problem.
+ */
+public interface TourSolver {
+
+    /**
+     * Find a short order in which to pick all products, walking from the start point to the end point.
+     * @param pd The product distances.
+     * @param seed Seed for all randomness of the run, so runs can be repeated.
+     * @param progress Receives every improvement of the best order, may be null.
+     * @return int[] The order of items, as consumed by {@link TSPData#writeActionFile}.
+     */
+    int[] solve(ProductDistances pd, long seed, SolverProgress progress);
+}
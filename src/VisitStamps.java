@@ -0,0 +1,60 @@
+import java.util.Arrays;
+
+/**
+ * Visit marks of the slots of a maze, shared by the two halves of a {@link BidirectionalAnt} and used by Maze to
+ * find routes that revisit a tile. A mark holds the number of the walk it was set in, so starting a new walk
+ * clears all marks without touching the array and one instance can be reused by all ants of a colony.
+ */
+public class VisitStamps {
+    public static final int NONE = -1;
+    private static final int STATE_BITS = 2;
+
+    private final int[] stamps;
+    private int walk;
+
+    /**
+     * Constructor of the marks.
+     * @param cells Number of slots of the maze.
+     */
+    public VisitStamps(int cells) {
+        this.stamps = new int[cells];
+        this.walk = 1;
+    }
+
+    /**
+     * Start a new walk, which forgets all marks.
+     */
+    public void next() {
+        if (++walk >= 1 << (Integer.SIZE - 1 - STATE_BITS)) {
+            Arrays.fill(stamps, 0);
+            walk = 1;
+        }
+    }
+
+    /**
+     * Mark of a slot in the current walk.
+     * @param cell The slot.
+     * @return int The state set in this walk, NONE if the slot is not marked.
+     */
+    public int get(int cell) {
+        int stamp = stamps[cell];
+        return stamp >>> STATE_BITS == walk ? stamp & ((1 << STATE_BITS) - 1) : NONE;
+    }
+
+    /**
+     * Mark a slot in the current walk.
+     * @param cell The slot.
+     * @param state The state, 0 to 3.
+     */
+    public void set(int cell, int state) {
+        stamps[cell] = walk << STATE_BITS | state;
+    }
+
+    /**
+     * Number of slots.
+     * @return int The number of slots.
+     */
+    public int size() {
+        return stamps.length;
+    }
+}
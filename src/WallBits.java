@@ -0,0 +1,110 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * The open and blocked tiles of a maze as one bit per cell, cell y * width + x at bit (cell % 64) of word
+ * cell / 64. The bits live either on the heap or in a direct or memory-mapped buffer.
+ */
+public class WallBits {
+    private final LongBuffer bits;
+    private final int width;
+    private final int length;
+
+    /**
+     * Constructor of an all-blocked grid.
+     * @param width width of Maze (horizontal)
+     * @param length length of Maze (vertical)
+     * @param offHeap Whether to store the bits in a direct buffer.
+     */
+    public WallBits(int width, int length, boolean offHeap) {
+        this(offHeap
+                ? ByteBuffer.allocateDirect(words(width, length) * 8).order(ByteOrder.nativeOrder()).asLongBuffer()
+                : LongBuffer.wrap(new long[words(width, length)]), width, length);
+    }
+
+    /**
+     * Constructor over existing bits, for example a compiled maze file.
+     * @param bits The bits, at least (width * length + 63) / 64 words.
+     * @param width width of Maze (horizontal)
+     * @param length length of Maze (vertical)
+     */
+    public WallBits(LongBuffer bits, int width, int length) {
+        if (bits.capacity() < words(width, length)) throw new IllegalArgumentException("Too few bits for the maze");
+        this.bits = bits;
+        this.width = width;
+        this.length = length;
+    }
+
+    /**
+     * Build the bits from a flat row-major grid.
+     * @param walls Tiles accessible (1) and non-accessible (0), index y * width + x
+     * @param width width of Maze (horizontal)
+     * @param length length of Maze (vertical)
+     * @param offHeap Whether to store the bits in a direct buffer.
+     * @return WallBits The bits.
+     */
+    public static WallBits fromCells(byte[] walls, int width, int length, boolean offHeap) {
+        WallBits bits = new WallBits(width, length, offHeap);
+        for (int cell = 0; cell < walls.length; cell++) {
+            if (walls[cell] == 1) bits.setOpen(cell);
+        }
+        return bits;
+    }
+
+    private static int words(int width, int length) {
+        return (int) (((long) width * length + 63) / 64);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Check whether a cell inside the maze is open.
+     * @param x The horizontal position.
+     * @param y The vertical position.
+     * @return boolean Whether the cell is accessible.
+     */
+    public boolean isOpen(int x, int y) {
+        return isOpen(y * width + x);
+    }
+
+    /**
+     * Check whether a cell is open.
+     * @param cell The row-major cell index.
+     * @return boolean Whether the cell is accessible.
+     */
+    public boolean isOpen(int cell) {
+        return (bits.get(cell >>> 6) >>> cell & 1) != 0;
+    }
+
+    /**
+     * Mark a cell as open.
+     * @param cell The row-major cell index.
+     */
+    public void setOpen(int cell) {
+        bits.put(cell >>> 6, bits.get(cell >>> 6) | 1L << cell);
+    }
+
+    /**
+     * One word of the bits.
+     * @param word The word index.
+     * @return long 64 cells, the lowest cell in the lowest bit.
+     */
+    public long getWord(int word) {
+        return bits.get(word);
+    }
+
+    /**
+     * Number of words holding the bits.
+     * @return int The number of words.
+     */
+    public int getWords() {
+        return words(width, length);
+    }
+}
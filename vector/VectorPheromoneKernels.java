@@ -0,0 +1,86 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Pheromone kernels on the incubating Vector API, using the widest double vectors of the CPU. Compile and run
+ * with --add-modules jdk.incubator.vector; PheromoneKernels.get() picks this class up when it is on the
+ * classpath. Masks are built with compares and applied with blends, which JDK 17 compiles to vector
+ * instructions, unlike masked stores and VectorMask.fromLong.
+ */
+public class VectorPheromoneKernels implements PheromoneKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> BIT_SPECIES = LongVector.SPECIES_PREFERRED;
+    // lane i holds 1 << i, to test the bits of a word of walls lane by lane
+    private static final LongVector LANE_BITS = laneBits();
+
+    private static LongVector laneBits() {
+        long[] bits = new long[BIT_SPECIES.length()];
+        for (int lane = 0; lane < bits.length; lane++) bits[lane] = 1L << lane;
+        return LongVector.fromArray(BIT_SPECIES, bits, 0);
+    }
+
+    @Override
+    public void scale(double[] values, double factor) {
+        int i = 0;
+        for (int upper = SPECIES.loopBound(values.length); i < upper; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, values, i).mul(factor).intoArray(values, i);
+        }
+        for (; i < values.length; i++) {
+            values[i] *= factor;
+        }
+    }
+
+    @Override
+    public void fillOpen(double[] values, WallBits walls, double value) {
+        DoubleVector fill = DoubleVector.broadcast(SPECIES, value);
+        int lanes = SPECIES.length();
+        for (int word = 0; word < walls.getWords(); word++) {
+            long bits = walls.getWord(word);
+            if (bits == 0) continue;
+            int base = word * 64;
+            if (base + 64 <= values.length && lanes == BIT_SPECIES.length()) {
+                for (int lane = 0; lane < 64; lane += lanes) {
+                    VectorMask<Long> open = LANE_BITS.and(bits >>> lane).compare(VectorOperators.NE, 0L);
+                    DoubleVector.fromArray(SPECIES, values, base + lane).blend(fill, open.cast(SPECIES))
+                            .intoArray(values, base + lane);
+                }
+            } else {
+                for (; bits != 0; bits &= bits - 1) {
+                    values[base + Long.numberOfTrailingZeros(bits)] = value;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void clamp(double[] values, double min, double max) {
+        int i = 0;
+        for (int upper = SPECIES.loopBound(values.length); i < upper; i += SPECIES.length()) {
+            DoubleVector v = DoubleVector.fromArray(SPECIES, values, i);
+            v.blend(v.max(min).min(max), v.compare(VectorOperators.NE, 0.0d)).intoArray(values, i);
+        }
+        for (; i < values.length; i++) {
+            if (values[i] != 0) values[i] = Math.max(min, Math.min(max, values[i]));
+        }
+    }
+
+    @Override
+    public void deposit(double[] values, int[] slots, int count, double amount) {
+        int i = 0;
+        int lanes = SPECIES.length();
+        for (int upper = count - count % lanes; i < upper; i += lanes) {
+            DoubleVector.fromArray(SPECIES, values, 0, slots, i).add(amount).intoArray(values, 0, slots, i);
+        }
+        for (; i < count; i++) {
+            values[slots[i]] += amount;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector " + SPECIES.length() + "x double";
+    }
+}